@@ -0,0 +1,76 @@
+package benchmark;
+
+import camera.SnapSearchStrategy;
+import camera.WallSnapper;
+import org.openjdk.jmh.annotations.*;
+import planner.GridWall;
+import simulator.SimulatorMaze;
+import simulator.WallGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static controller.util.DuckieBot.GRID_SIZE;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CameraBenchmark {
+
+    private static final SnapSearchStrategy PARALLEL_EXHAUSTIVE = SnapSearchStrategy.parallelExhaustive(
+            ForkJoinPool.commonPool()
+    );
+
+    private final List<SimulatorRecording.Frame> frames = new ArrayList<>();
+    private WallGrid grid;
+    private int frameIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // The WallMapper ignores frames with less than 2 walls
+        for (var frame : SimulatorRecording.load().frames) {
+            if (frame.walls().size() >= 2) frames.add(frame);
+        }
+        grid = SimulatorMaze.createTestingWallGrid5x5();
+    }
+
+    private SimulatorRecording.Frame nextFrame() {
+        frameIndex = (frameIndex + 1) % frames.size();
+        return frames.get(frameIndex);
+    }
+
+    /**
+     * Uses the same search grid (33 angles, and 33 offsets in both directions) as the WallMapper
+     */
+    @Benchmark
+    public WallSnapper.SnapResult wallSnapperSnap() {
+        var frame = nextFrame();
+        var snapper = new WallSnapper(frame.walls(), frame.estimatedCamera(), SnapSearchStrategy.EXHAUSTIVE);
+        return snapper.snap(0.02, 33, 0.02 * GRID_SIZE, 33, null);
+    }
+
+    @Benchmark
+    public WallSnapper.SnapResult wallSnapperSnapParallel() {
+        var frame = nextFrame();
+        var snapper = new WallSnapper(frame.walls(), frame.estimatedCamera(), PARALLEL_EXHAUSTIVE);
+        return snapper.snap(0.02, 33, 0.02 * GRID_SIZE, 33, null);
+    }
+
+    @Benchmark
+    public WallSnapper.SnapResult wallSnapperSnapCoarseToFine() {
+        var frame = nextFrame();
+        var snapper = new WallSnapper(frame.walls(), frame.estimatedCamera(), SnapSearchStrategy.COARSE_TO_FINE);
+        return snapper.snap(0.02, 33, 0.02 * GRID_SIZE, 33, null);
+    }
+
+    @Benchmark
+    public Set<GridWall> wallGridFindVisibleWalls() {
+        return grid.findVisibleWalls(nextFrame().realCamera());
+    }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import controller.DifferentialDriver;
+import controller.desired.DesiredVelocity;
+import controller.desired.DesiredWheelSpeed;
+import controller.estimation.DuckieEstimations;
+import controller.parameters.DuckieParameters;
+import org.openjdk.jmh.annotations.*;
+import state.DuckieControls;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    private SimulatorRecording recording;
+    private final DesiredVelocity desiredVelocity = new DesiredVelocity();
+    private final DesiredWheelSpeed desiredWheelSpeed = new DesiredWheelSpeed();
+    private final DuckieEstimations estimations = new DuckieEstimations();
+    private final DuckieControls controls = new DuckieControls();
+    private DifferentialDriver differentialDriver;
+    private int tickIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recording = SimulatorRecording.load();
+        differentialDriver = new DifferentialDriver(
+                desiredVelocity, desiredWheelSpeed, estimations, controls, new DuckieParameters().anglePID
+        );
+    }
+
+    @Benchmark
+    public double differentialDriverUpdate() {
+        var tick = recording.ticks.get(tickIndex);
+        tickIndex = (tickIndex + 1) % recording.ticks.size();
+
+        estimations.pose.write(tick.x(), tick.y(), tick.angle());
+        desiredVelocity.speed = tick.desiredSpeed();
+        desiredVelocity.angle = tick.desiredAngle();
+        desiredWheelSpeed.leftSpeed = tick.desiredSpeed();
+        desiredWheelSpeed.rightSpeed = tick.desiredSpeed();
+        differentialDriver.update(0.001);
+        return controls.velLeft + controls.velRight;
+    }
+}
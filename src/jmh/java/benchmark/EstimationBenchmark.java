@@ -0,0 +1,74 @@
+package benchmark;
+
+import controller.estimation.SpeedEstimator;
+import controller.util.Polynomial;
+import org.openjdk.jmh.annotations.*;
+import state.EncoderSlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static controller.util.DuckieBot.WHEEL_CIRCUMFERENCE;
+import static controller.util.DuckieBot.WHEEL_TICKS_PER_TURN;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EstimationBenchmark {
+
+    /**
+     * The SpeedEstimator fits a line through the samples of the last 150 milliseconds
+     */
+    private static final int WINDOW_SIZE = 150;
+
+    private record Sample(double getT, double getY) implements Polynomial.Entry {}
+
+    private SimulatorRecording recording;
+    private final List<List<Sample>> windows = new ArrayList<>();
+    private int windowIndex;
+
+    private final EncoderSlot encoder = new EncoderSlot();
+    private SpeedEstimator speedEstimator;
+    private long currentTime;
+    private double estimatedSpeed;
+    private int tickIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recording = SimulatorRecording.load();
+        for (int start = 0; start + WINDOW_SIZE <= recording.ticks.size(); start += WINDOW_SIZE) {
+            var window = new ArrayList<Sample>(WINDOW_SIZE);
+            for (var tick : recording.ticks.subList(start, start + WINDOW_SIZE)) {
+                window.add(new Sample(
+                        tick.timestamp() / 1_000_000_000.0,
+                        tick.leftTicks() * WHEEL_CIRCUMFERENCE / WHEEL_TICKS_PER_TURN
+                ));
+            }
+            windows.add(window);
+        }
+
+        speedEstimator = new SpeedEstimator(encoder, newSpeed -> estimatedSpeed = newSpeed, () -> currentTime);
+    }
+
+    @Benchmark
+    public Polynomial polynomialFit() {
+        windowIndex = (windowIndex + 1) % windows.size();
+        return Polynomial.fit(windows.get(windowIndex), 1);
+    }
+
+    @Benchmark
+    public double speedEstimatorUpdate() {
+        var tick = recording.ticks.get(tickIndex);
+        tickIndex = (tickIndex + 1) % recording.ticks.size();
+
+        // The time keeps increasing when the recording wraps around, but the ticks jump back
+        currentTime += 1_000_000;
+        encoder.write(currentTime, tick.leftTicks());
+        speedEstimator.update(0.001);
+        return estimatedSpeed;
+    }
+}
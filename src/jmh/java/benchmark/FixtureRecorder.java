@@ -0,0 +1,103 @@
+package benchmark;
+
+import camera.RelativeWall;
+import camera.WallSnapper;
+import controller.DifferentialDriver;
+import controller.DirectSpeedPIDController;
+import controller.desired.DesiredVelocity;
+import controller.desired.DesiredWheelSpeed;
+import controller.estimation.EstimatedPose;
+import controller.estimation.PoseEstimator;
+import controller.estimation.SpeedEstimator;
+import controller.parameters.DuckieParameters;
+import simulator.Simulator;
+import simulator.Terrain;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static controller.util.DuckieBot.CAMERA_OFFSET;
+import static java.lang.Math.*;
+
+/**
+ * Drives the simulated duckiebot for a few seconds, and records the encoder values, estimated poses and camera frames
+ * that the benchmarks use as input. Run this from the project root to regenerate the recording, for instance after
+ * changing the simulator. Note that benchmark results are only comparable when they use the same recording.
+ */
+public class FixtureRecorder {
+
+    private static final int NUM_TICKS = 4000;
+    private static final int CAMERA_INTERVAL = 100;
+
+    public static void main(String[] args) throws IOException {
+        var simulator = new Simulator(Terrain.IDEAL);
+        var estimations = simulator.estimations;
+        var trackedState = simulator.trackedState;
+        var parameters = new DuckieParameters();
+        var desiredVelocity = new DesiredVelocity();
+        var desiredWheelSpeed = new DesiredWheelSpeed();
+
+        var leftSpeedEstimator = new SpeedEstimator(
+                trackedState.leftWheelEncoder, newSpeed -> estimations.leftSpeed = newSpeed, simulator::nanoTime
+        );
+        var rightSpeedEstimator = new SpeedEstimator(
+                trackedState.rightWheelEncoder, newSpeed -> estimations.rightSpeed = newSpeed, simulator::nanoTime
+        );
+        var speedController = new DirectSpeedPIDController(
+                desiredVelocity, desiredWheelSpeed, estimations, parameters.speedPID
+        );
+        var differentialDriver = new DifferentialDriver(
+                desiredVelocity, desiredWheelSpeed, estimations, simulator.controls, parameters.anglePID
+        );
+        var poseEstimator = new PoseEstimator(trackedState, estimations);
+
+        var recording = new SimulatorRecording();
+        var pose = new EstimatedPose.Snapshot();
+        for (int tickIndex = 0; tickIndex < NUM_TICKS; tickIndex++) {
+            // Drive straight, turn left, and then turn back
+            desiredVelocity.speed = 0.2;
+            if (tickIndex < 1500) desiredVelocity.angle = 0.0;
+            else if (tickIndex < 2500) desiredVelocity.angle = 0.25;
+            else desiredVelocity.angle = 0.0;
+
+            simulator.update(0.001);
+            poseEstimator.update(0.001);
+            leftSpeedEstimator.update(0.001);
+            rightSpeedEstimator.update(0.001);
+            speedController.update(0.001);
+            differentialDriver.update(0.001);
+
+            estimations.pose.read(pose);
+            recording.ticks.add(new SimulatorRecording.Tick(
+                    simulator.nanoTime(), trackedState.leftWheelEncoder.value(), trackedState.rightWheelEncoder.value(),
+                    pose.x, pose.y, pose.angle, desiredVelocity.speed, desiredVelocity.angle
+            ));
+
+            if (tickIndex % CAMERA_INTERVAL == 0) {
+                var realCamera = cameraPose(simulator.realPose.x, simulator.realPose.y, simulator.realPose.angle);
+                var walls = new ArrayList<RelativeWall>();
+                for (var wall : simulator.walls.findVisibleWalls(realCamera)) {
+                    walls.add(RelativeWall.fromGrid(wall, realCamera));
+                }
+                recording.frames.add(new SimulatorRecording.Frame(
+                        tickIndex, realCamera, cameraPose(pose.x, pose.y, pose.angle), walls
+                ));
+            }
+        }
+
+        String path = args.length > 0 ? args[0] : "src/jmh/resources" + SimulatorRecording.RESOURCE;
+        try (var output = new PrintWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8))) {
+            recording.write(output);
+        }
+        System.out.println("Recorded " + NUM_TICKS + " ticks and " + recording.frames.size() + " frames to " + path);
+    }
+
+    static WallSnapper.FixedPose cameraPose(double x, double y, double angle) {
+        double angleRad = angle * 2 * PI;
+        return new WallSnapper.FixedPose(x + CAMERA_OFFSET * cos(angleRad), y + CAMERA_OFFSET * sin(angleRad), angle);
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import controller.estimation.DuckieEstimations;
+import org.openjdk.jmh.annotations.*;
+import planner.GridPosition;
+import planner.MazePlanner;
+import simulator.BatchSimulator;
+import simulator.Simulator;
+import simulator.SimulatorMaze;
+import simulator.Terrain;
+
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulationBenchmark {
+
+    private SimulatorRecording recording;
+    private Simulator simulator;
+
+    /**
+     * 100 duckiebots, so batchSimulatorStep can be compared with 100 times simulatorUpdate
+     */
+    private BatchSimulator batchSimulator;
+
+    private final DuckieEstimations estimations = new DuckieEstimations();
+    private final LinkedBlockingQueue<GridPosition> highLevelRoute = new LinkedBlockingQueue<>();
+    private MazePlanner mazePlanner;
+    private int tickIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recording = SimulatorRecording.load();
+
+        simulator = new Simulator(Terrain.IDEAL);
+        simulator.controls.velLeft = 0.3;
+        simulator.controls.velRight = 0.35;
+
+        var robots = new ArrayList<BatchSimulator.Robot>();
+        for (int index = 0; index < 100; index++) {
+            robots.add(new BatchSimulator.Robot(Terrain.IDEAL, 0.0, 0.0, 0.0, index));
+        }
+        batchSimulator = new BatchSimulator(robots, 0.001);
+        for (int index = 0; index < batchSimulator.size; index++) {
+            batchSimulator.leftControl[index] = 0.3;
+            batchSimulator.rightControl[index] = 0.35;
+        }
+
+        // Let the planner know all walls of the maze, so that it has to plan around them
+        for (var wall : SimulatorMaze.createTestingWallGrid5x5().copyWalls()) estimations.walls.add(wall);
+        mazePlanner = new MazePlanner(highLevelRoute, estimations);
+    }
+
+    @Benchmark
+    public double simulatorUpdate() {
+        simulator.update(0.001);
+        return simulator.realPose.x;
+    }
+
+    @Benchmark
+    public double batchSimulatorStep() {
+        batchSimulator.step();
+        return batchSimulator.x[0];
+    }
+
+    @Benchmark
+    public int mazePlannerUpdate() {
+        var tick = recording.ticks.get(tickIndex);
+        tickIndex = (tickIndex + 1) % recording.ticks.size();
+
+        estimations.pose.write(tick.x(), tick.y(), tick.angle());
+        mazePlanner.update(0.01);
+
+        // The RoutePlanner would normally consume the route
+        int routeSize = highLevelRoute.size();
+        highLevelRoute.clear();
+        return routeSize;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import camera.RelativeWall;
+import camera.WallSnapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The inputs of the benchmarks, which were recorded from the simulator by {@link FixtureRecorder}. The recording is
+ * stored in the resources, so that all commits benchmark the same inputs.
+ */
+public class SimulatorRecording {
+
+    public static final String RESOURCE = "/benchmark/simulator-recording.txt";
+
+    private static SimulatorRecording instance;
+
+    /**
+     * @return The recording in the resources, which is only parsed the first time
+     */
+    public static synchronized SimulatorRecording load() {
+        if (instance == null) {
+            var input = Objects.requireNonNull(
+                    SimulatorRecording.class.getResourceAsStream(RESOURCE), "Missing " + RESOURCE
+            );
+            try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                instance = parse(reader);
+            } catch (IOException failed) {
+                throw new RuntimeException(failed);
+            }
+        }
+        return instance;
+    }
+
+    static SimulatorRecording parse(BufferedReader reader) throws IOException {
+        var recording = new SimulatorRecording();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] parts = line.split(" ");
+            if (parts[0].equals("tick")) {
+                recording.ticks.add(new Tick(
+                        Long.parseLong(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]),
+                        Double.parseDouble(parts[4]), Double.parseDouble(parts[5]), Double.parseDouble(parts[6]),
+                        Double.parseDouble(parts[7]), Double.parseDouble(parts[8])
+                ));
+            } else if (parts[0].equals("frame")) {
+                int numWalls = Integer.parseInt(parts[8]);
+                var walls = new ArrayList<RelativeWall>(numWalls);
+                for (int index = 0; index < numWalls; index++) {
+                    walls.add(new RelativeWall(
+                            Double.parseDouble(parts[9 + 2 * index]), Double.parseDouble(parts[10 + 2 * index])
+                    ));
+                }
+                recording.frames.add(new Frame(Integer.parseInt(parts[1]), new WallSnapper.FixedPose(
+                        Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), Double.parseDouble(parts[4])
+                ), new WallSnapper.FixedPose(
+                        Double.parseDouble(parts[5]), Double.parseDouble(parts[6]), Double.parseDouble(parts[7])
+                ), walls));
+            } else throw new IOException("Unexpected line " + line);
+        }
+        return recording;
+    }
+
+    public final List<Tick> ticks = new ArrayList<>();
+    public final List<Frame> frames = new ArrayList<>();
+
+    void write(PrintWriter output) {
+        output.println("# Recorded by benchmark.FixtureRecorder");
+        output.println("# tick <time (ns)> <left ticks> <right ticks> <x> <y> <angle> <desired speed> <desired angle>");
+        output.println("# frame <tick index> <real camera pose> <estimated camera pose> <#walls> (<distance> <angle>)*");
+        for (var tick : ticks) {
+            output.println("tick " + tick.timestamp + " " + tick.leftTicks + " " + tick.rightTicks + " " + tick.x +
+                    " " + tick.y + " " + tick.angle + " " + tick.desiredSpeed + " " + tick.desiredAngle);
+        }
+        for (var frame : frames) {
+            var line = new StringBuilder("frame " + frame.tickIndex);
+            for (var pose : List.of(frame.realCamera, frame.estimatedCamera)) {
+                line.append(' ').append(pose.x()).append(' ').append(pose.y()).append(' ').append(pose.angle());
+            }
+            line.append(' ').append(frame.walls.size());
+            for (var wall : frame.walls) line.append(' ').append(wall.distance()).append(' ').append(wall.angle());
+            output.println(line);
+        }
+    }
+
+    /**
+     * The state after 1 simulator update
+     * @param timestamp The simulated time, in nanoseconds
+     * @param x The estimated x-coordinate, in meters
+     * @param y The estimated y-coordinate, in meters
+     * @param angle The estimated angle, in turns
+     */
+    public record Tick(
+            long timestamp, int leftTicks, int rightTicks, double x, double y, double angle,
+            double desiredSpeed, double desiredAngle
+    ) {}
+
+    /**
+     * A camera frame
+     * @param tickIndex The index of the tick during which the frame was taken
+     * @param realCamera The real pose of the camera
+     * @param estimatedCamera The pose of the camera, according to the estimated pose of the duckiebot
+     * @param walls The walls that were visible to the camera, relative to the real camera pose
+     */
+    public record Frame(
+            int tickIndex, WallSnapper.FixedPose realCamera, WallSnapper.FixedPose estimatedCamera,
+            List<RelativeWall> walls
+    ) {}
+}
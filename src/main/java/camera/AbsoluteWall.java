@@ -8,29 +8,82 @@ import static java.lang.Math.min;
 
 public record AbsoluteWall(double x, double y) {
 
-    public SnappedError snap() {
+    /**
+     * The sides of a grid cell. When several sides are equally close, snap() picks the last one.
+     */
+    private static final int RIGHT = 0, LEFT = 1, UP = 2, DOWN = 3;
+
+    /**
+     * The same expressions as in snapError, so that snap().error() is exactly equal to snapError
+     * @param rx The x-coordinate relative to the bottom-left corner of the grid cell, in grid units
+     * @param ry The y-coordinate relative to the bottom-left corner of the grid cell, in grid units
+     * @return The squared distance (in grid units) to the middle of the given side of the grid cell
+     */
+    private static double sideError(int side, double rx, double ry) {
+        return switch (side) {
+            case RIGHT -> (1 - rx) * (1 - rx) + (0.5 - ry) * (0.5 - ry);
+            case LEFT -> rx * rx + (0.5 - ry) * (0.5 - ry);
+            case UP -> (0.5 - rx) * (0.5 - rx) + (1 - ry) * (1 - ry);
+            case DOWN -> (0.5 - rx) * (0.5 - rx) + ry * ry;
+            default -> throw new IllegalArgumentException("Unknown side " + side);
+        };
+    }
+
+    /**
+     * @return The side of the grid cell whose middle is nearest to (rx, ry)
+     */
+    private static int nearestSide(double rx, double ry) {
+        int nearest = RIGHT;
+        double minError = sideError(RIGHT, rx, ry);
+        for (int side = LEFT; side <= DOWN; side++) {
+            double error = sideError(side, rx, ry);
+            if (error <= minError) {
+                nearest = side;
+                minError = error;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Computes the same error as snap().error(), but without allocating any records. The error is the squared
+     * distance (in grid units) between (x, y) and the middle of the nearest grid wall. This is the inner loop of the
+     * WallSnapper, so it computes the errors of all sides inline, and takes their minimum without branches, rather
+     * than using nearestSide.
+     */
+    public static double snapError(double x, double y) {
         double gridX = x / GRID_SIZE;
         double gridY = y / GRID_SIZE;
 
         double rx = gridX - floor(gridX);
         double ry = gridY - floor(gridY);
 
-        int ix = (int) floor(gridX);
-        int iy = (int) floor(gridY);
-
         double errorRight = (1 - rx) * (1 - rx) + (0.5 - ry) * (0.5 - ry);
         double errorLeft = rx * rx + (0.5 - ry) * (0.5 - ry);
         double errorUp = (0.5 - rx) * (0.5 - rx) + (1 - ry) * (1 - ry);
         double errorDown = (0.5 - rx) * (0.5 - rx) + ry * ry;
 
-        double minError = min(min(errorLeft, errorRight), min(errorDown, errorUp));
+        return min(min(errorLeft, errorRight), min(errorDown, errorUp));
+    }
 
-        var snapped = new GridWall(ix + 1, iy, GridWall.Axis.Y);
-        if (errorLeft == minError) snapped = new GridWall(ix, iy, GridWall.Axis.Y);
-        if (errorUp == minError) snapped = new GridWall(ix, iy + 1, GridWall.Axis.X);
-        if (errorDown == minError) snapped = new GridWall(ix, iy, GridWall.Axis.X);
+    public SnappedError snap() {
+        double gridX = x / GRID_SIZE;
+        double gridY = y / GRID_SIZE;
+
+        double rx = gridX - floor(gridX);
+        double ry = gridY - floor(gridY);
+
+        int ix = (int) floor(gridX);
+        int iy = (int) floor(gridY);
 
-        return new SnappedError(snapped, minError);
+        int side = nearestSide(rx, ry);
+        var snapped = switch (side) {
+            case LEFT -> new GridWall(ix, iy, GridWall.Axis.Y);
+            case UP -> new GridWall(ix, iy + 1, GridWall.Axis.X);
+            case DOWN -> new GridWall(ix, iy, GridWall.Axis.X);
+            default -> new GridWall(ix + 1, iy, GridWall.Axis.Y);
+        };
+        return new SnappedError(snapped, sideError(side, rx, ry));
     }
 
     public record SnappedError(GridWall wall, double error) {}
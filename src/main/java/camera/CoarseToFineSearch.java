@@ -0,0 +1,193 @@
+package camera;
+
+import java.util.Arrays;
+
+/**
+ * Searches the angle corrections and the offset corrections separately: for each angle correction that it tries, it
+ * searches the best offset correction, and then uses the error of that offset correction as the error of the angle
+ * correction. Both searches start by evaluating every coarseStride-th candidate, and then refine the best ones by
+ * moving to better neighbours, halving the stride when none of the neighbours is better.
+ * <p>
+ * Searching the angles separately is needed because a small angle error can be compensated by a much larger offset
+ * error: the error function has narrow diagonal valleys that a search over all 3 dimensions at once can't follow.
+ * This search evaluates roughly a thousand candidates, rather than all numAnglesToTry * numOffsetsToTry^2 candidates.
+ * When several candidates have the same error, it prefers the one that the exhaustive search would find first.
+ */
+class CoarseToFineSearch implements SnapSearchStrategy {
+
+    private final int coarseStride, numSeeds;
+
+    /**
+     * @param coarseStride The distance (in candidate indices) between the candidates of the coarse search
+     * @param numSeeds The number of coarse angle candidates that should be refined
+     */
+    CoarseToFineSearch(int coarseStride, int numSeeds) {
+        if (coarseStride < 1) throw new IllegalArgumentException("coarseStride must be positive, but is " + coarseStride);
+        if (numSeeds < 1) throw new IllegalArgumentException("numSeeds must be positive, but is " + numSeeds);
+        this.coarseStride = coarseStride;
+        this.numSeeds = numSeeds;
+    }
+
+    /**
+     * @return The indices that the coarse search should try: every stride-th index, and the last index
+     */
+    private static int[] coarseIndices(int numIndices, int stride) {
+        int numCoarse = (numIndices - 1) / stride + 1;
+        boolean includeLast = (numIndices - 1) % stride != 0;
+        int[] indices = new int[includeLast ? numCoarse + 1 : numCoarse];
+        for (int counter = 0; counter < numCoarse; counter++) indices[counter] = counter * stride;
+        if (includeLast) indices[numCoarse] = numIndices - 1;
+        return indices;
+    }
+
+    @Override
+    public Correction search(ErrorFunction errorFunction, SearchGrid grid) {
+        return new Search(errorFunction, grid).run();
+    }
+
+    /**
+     * The state of 1 search. This is a separate class so that the strategy itself can be shared between threads.
+     */
+    private class Search {
+
+        final ErrorFunction errorFunction;
+        final SearchGrid grid;
+        final int[] coarseOffsets;
+
+        /**
+         * The error of the best offset correction for each angle index, or NaN if it hasn't been searched yet
+         */
+        final double[] angleErrors;
+        final int[] bestX, bestY;
+
+        Search(ErrorFunction errorFunction, SearchGrid grid) {
+            this.errorFunction = errorFunction;
+            this.grid = grid;
+            this.coarseOffsets = coarseIndices(grid.numOffsetsToTry(), coarseStride);
+            this.angleErrors = new double[grid.numAnglesToTry()];
+            Arrays.fill(angleErrors, Double.NaN);
+            this.bestX = new int[grid.numAnglesToTry()];
+            this.bestY = new int[grid.numAnglesToTry()];
+        }
+
+        /**
+         * @return True if the first candidate is better than the second candidate
+         */
+        boolean isBetter(double error, int index1, int index2, double otherError, int otherIndex1, int otherIndex2) {
+            if (error != otherError) return error < otherError;
+            if (index1 != otherIndex1) return index1 < otherIndex1;
+            return index2 < otherIndex2;
+        }
+
+        double computeError(int angleIndex, int xIndex, int yIndex) {
+            return errorFunction.computeError(grid.angle(angleIndex), grid.offset(xIndex), grid.offset(yIndex));
+        }
+
+        /**
+         * Searches the best offset correction for the given angle correction, and stores it in angleErrors, bestX,
+         * and bestY
+         */
+        double searchAngle(int angleIndex) {
+            if (!Double.isNaN(angleErrors[angleIndex])) return angleErrors[angleIndex];
+
+            int x = -1, y = -1;
+            double error = Double.MAX_VALUE;
+            for (int xIndex : coarseOffsets) {
+                for (int yIndex : coarseOffsets) {
+                    double newError = computeError(angleIndex, xIndex, yIndex);
+                    if (x == -1 || isBetter(newError, xIndex, yIndex, error, x, y)) {
+                        x = xIndex;
+                        y = yIndex;
+                        error = newError;
+                    }
+                }
+            }
+
+            int numOffsets = grid.numOffsetsToTry();
+            int stride = Math.max(1, coarseStride / 2);
+            while (true) {
+                int nextX = x, nextY = y;
+                double nextError = error;
+                for (int xIndex = x - stride; xIndex <= x + stride; xIndex += stride) {
+                    if (xIndex < 0 || xIndex >= numOffsets) continue;
+                    for (int yIndex = y - stride; yIndex <= y + stride; yIndex += stride) {
+                        if (yIndex < 0 || yIndex >= numOffsets || (xIndex == x && yIndex == y)) continue;
+                        double newError = computeError(angleIndex, xIndex, yIndex);
+                        if (isBetter(newError, xIndex, yIndex, nextError, nextX, nextY)) {
+                            nextX = xIndex;
+                            nextY = yIndex;
+                            nextError = newError;
+                        }
+                    }
+                }
+
+                if (nextX != x || nextY != y) {
+                    x = nextX;
+                    y = nextY;
+                    error = nextError;
+                } else if (stride > 1) stride /= 2;
+                else break;
+            }
+
+            angleErrors[angleIndex] = error;
+            bestX[angleIndex] = x;
+            bestY[angleIndex] = y;
+            return error;
+        }
+
+        /**
+         * Moves the angle index to a local minimum
+         * @return The final angle index
+         */
+        int refineAngle(int angleIndex) {
+            int numAngles = grid.numAnglesToTry();
+            int stride = Math.max(1, coarseStride / 2);
+            while (true) {
+                int nextAngle = angleIndex;
+                for (int candidate = angleIndex - stride; candidate <= angleIndex + stride; candidate += 2 * stride) {
+                    if (candidate < 0 || candidate >= numAngles) continue;
+                    if (isBetter(
+                            searchAngle(candidate), candidate, 0, searchAngle(nextAngle), nextAngle, 0
+                    )) nextAngle = candidate;
+                }
+
+                if (nextAngle != angleIndex) angleIndex = nextAngle;
+                else if (stride > 1) stride /= 2;
+                else return angleIndex;
+            }
+        }
+
+        Correction run() {
+            // The best coarse angles, sorted from best to worst
+            int[] seeds = new int[numSeeds];
+            int numFoundSeeds = 0;
+            for (int angleIndex : coarseIndices(grid.numAnglesToTry(), coarseStride)) {
+                double error = searchAngle(angleIndex);
+                int position = numFoundSeeds;
+                while (position > 0 && isBetter(
+                        error, angleIndex, 0, angleErrors[seeds[position - 1]], seeds[position - 1], 0
+                )) position -= 1;
+                if (position >= numSeeds) continue;
+
+                for (int index = Math.min(numFoundSeeds, numSeeds - 1); index > position; index--) {
+                    seeds[index] = seeds[index - 1];
+                }
+                seeds[position] = angleIndex;
+                numFoundSeeds = Math.min(numFoundSeeds + 1, numSeeds);
+            }
+
+            int bestAngle = -1;
+            for (int seedIndex = 0; seedIndex < numFoundSeeds; seedIndex++) {
+                int angleIndex = refineAngle(seeds[seedIndex]);
+                if (bestAngle == -1 || isBetter(
+                        angleErrors[angleIndex], angleIndex, 0, angleErrors[bestAngle], bestAngle, 0
+                )) bestAngle = angleIndex;
+            }
+
+            return new Correction(
+                    grid.angle(bestAngle), grid.offset(bestX[bestAngle]), grid.offset(bestY[bestAngle]),
+                    angleErrors[bestAngle]
+            );
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package camera;
+
+class ExhaustiveSearch implements SnapSearchStrategy {
+
+    @Override
+    public Correction search(ErrorFunction errorFunction, SearchGrid grid) {
+        double minError = Double.MAX_VALUE;
+        double bestAngleCorrection = 0;
+        double bestCorrectionX = 0;
+        double bestCorrectionY = 0;
+
+        for (int angleCounter = 0; angleCounter < grid.numAnglesToTry(); angleCounter++) {
+            double angleToTry = grid.angle(angleCounter);
+
+            for (int xCounter = 0; xCounter < grid.numOffsetsToTry(); xCounter++) {
+                double xToTry = grid.offset(xCounter);
+
+                for (int yCounter = 0; yCounter < grid.numOffsetsToTry(); yCounter++) {
+                    double yToTry = grid.offset(yCounter);
+
+                    double newError = errorFunction.computeError(angleToTry, xToTry, yToTry);
+                    if (newError < minError) {
+                        minError = newError;
+                        bestAngleCorrection = angleToTry;
+                        bestCorrectionX = xToTry;
+                        bestCorrectionY = yToTry;
+                    }
+                }
+            }
+        }
+
+        return new Correction(bestAngleCorrection, bestCorrectionX, bestCorrectionY, minError);
+    }
+}
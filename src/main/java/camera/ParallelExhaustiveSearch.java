@@ -0,0 +1,83 @@
+package camera;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates the same candidates as the ExhaustiveSearch, but splits the angle corrections over fork-join tasks. Each
+ * task finds the best candidate of its own angle range, in the same order as the ExhaustiveSearch. The results of 2
+ * tasks are combined by only preferring the task with the higher angles when its error is strictly smaller, so the
+ * result is exactly the same as the result of the ExhaustiveSearch, regardless of the number of threads.
+ */
+class ParallelExhaustiveSearch implements SnapSearchStrategy {
+
+    private final ForkJoinPool pool;
+
+    ParallelExhaustiveSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Correction search(ErrorFunction errorFunction, SearchGrid grid) {
+        return pool.invoke(new AngleRangeTask(errorFunction, grid, 0, grid.numAnglesToTry()));
+    }
+
+    // ForkJoinTask is Serializable, but these tasks only live inside 1 search, so they are never serialized
+    @SuppressWarnings("serial")
+    private static class AngleRangeTask extends RecursiveTask<Correction> {
+
+        private final ErrorFunction errorFunction;
+        private final SearchGrid grid;
+        private final int minAngleIndex, boundAngleIndex;
+
+        AngleRangeTask(ErrorFunction errorFunction, SearchGrid grid, int minAngleIndex, int boundAngleIndex) {
+            this.errorFunction = errorFunction;
+            this.grid = grid;
+            this.minAngleIndex = minAngleIndex;
+            this.boundAngleIndex = boundAngleIndex;
+        }
+
+        @Override
+        protected Correction compute() {
+            if (boundAngleIndex - minAngleIndex > 1) {
+                int middleAngleIndex = (minAngleIndex + boundAngleIndex) / 2;
+                var lowerTask = new AngleRangeTask(errorFunction, grid, minAngleIndex, middleAngleIndex);
+                var upperTask = new AngleRangeTask(errorFunction, grid, middleAngleIndex, boundAngleIndex);
+                upperTask.fork();
+                var lowerResult = lowerTask.compute();
+                var upperResult = upperTask.join();
+                return upperResult.error() < lowerResult.error() ? upperResult : lowerResult;
+            }
+
+            // Each task needs its own error function, since they may cache intermediate results
+            var taskErrorFunction = errorFunction.copy();
+
+            double minError = Double.MAX_VALUE;
+            double bestAngleCorrection = 0;
+            double bestCorrectionX = 0;
+            double bestCorrectionY = 0;
+
+            for (int angleCounter = minAngleIndex; angleCounter < boundAngleIndex; angleCounter++) {
+                double angleToTry = grid.angle(angleCounter);
+
+                for (int xCounter = 0; xCounter < grid.numOffsetsToTry(); xCounter++) {
+                    double xToTry = grid.offset(xCounter);
+
+                    for (int yCounter = 0; yCounter < grid.numOffsetsToTry(); yCounter++) {
+                        double yToTry = grid.offset(yCounter);
+
+                        double newError = taskErrorFunction.computeError(angleToTry, xToTry, yToTry);
+                        if (newError < minError) {
+                            minError = newError;
+                            bestAngleCorrection = angleToTry;
+                            bestCorrectionX = xToTry;
+                            bestCorrectionY = yToTry;
+                        }
+                    }
+                }
+            }
+
+            return new Correction(bestAngleCorrection, bestCorrectionX, bestCorrectionY, minError);
+        }
+    }
+}
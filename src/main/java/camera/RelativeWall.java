@@ -2,6 +2,8 @@ package camera;
 
 import planner.GridWall;
 
+import java.util.random.RandomGenerator;
+
 import static controller.util.DuckieBot.GRID_SIZE;
 import static java.lang.Math.*;
 
@@ -25,11 +27,16 @@ public record RelativeWall(double distance, double angle) {
         return new RelativeWall(distance, angle);
     }
 
-    public static RelativeWall noisyFromGrid(GridWall wall, WallSnapper.FixedPose camera, double maxNoise) {
+    /**
+     * @param random The random number generator of the simulation, which decides the noise
+     */
+    public static RelativeWall noisyFromGrid(
+            GridWall wall, WallSnapper.FixedPose camera, double maxNoise, RandomGenerator random
+    ) {
         RelativeWall exact = fromGrid(wall, camera);
-        double noisyDistance = exact.distance() * (1 - maxNoise + 2 * maxNoise * Math.random());
+        double noisyDistance = exact.distance() * (1 - maxNoise + 2 * maxNoise * random.nextDouble());
         double maxAngleNoise = noisyDistance * 0.28 * maxNoise;
-        double noisyAngle = exact.angle * (1 - maxAngleNoise + 2 * maxAngleNoise * Math.random());
+        double noisyAngle = exact.angle * (1 - maxAngleNoise + 2 * maxAngleNoise * random.nextDouble());
         if (noisyAngle < -0.5) noisyAngle += 1;
         if (noisyAngle > 0.5) noisyAngle -= 1;
         return new RelativeWall(noisyDistance, noisyAngle);
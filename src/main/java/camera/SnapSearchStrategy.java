@@ -0,0 +1,67 @@
+package camera;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Decides which pose corrections the WallSnapper tries. All strategies search the same grid of candidate corrections:
+ * numAnglesToTry angle corrections between -maxAngleCorrection and maxAngleCorrection, and numOffsetsToTry offsets
+ * between -maxOffsetCorrection and maxOffsetCorrection in both the x-direction and the y-direction. They differ in
+ * how many of these candidates they actually evaluate.
+ */
+public interface SnapSearchStrategy {
+
+    /**
+     * Tries every candidate correction. This is slow, but guaranteed to find the best candidate.
+     */
+    SnapSearchStrategy EXHAUSTIVE = new ExhaustiveSearch();
+
+    /**
+     * Starts with a coarse subset of the candidates, and refines the most promising ones
+     */
+    SnapSearchStrategy COARSE_TO_FINE = new CoarseToFineSearch(8, 2);
+
+    /**
+     * Tries every candidate correction, like EXHAUSTIVE, but splits the angle corrections over tasks in the given pool.
+     * The result is exactly the same as the result of EXHAUSTIVE.
+     */
+    static SnapSearchStrategy parallelExhaustive(ForkJoinPool pool) {
+        return new ParallelExhaustiveSearch(pool);
+    }
+
+    Correction search(ErrorFunction errorFunction, SearchGrid grid);
+
+    @FunctionalInterface
+    interface ErrorFunction {
+
+        double computeError(double deltaAngle, double deltaX, double deltaY);
+
+        /**
+         * Error functions may cache intermediate results, in which case they can't be used by multiple threads at the
+         * same time. Parallel strategies call this method to get an error function for each task.
+         * @return An error function that computes the same errors, and can be used by another thread. This can return
+         * the same instance if it is thread-safe.
+         */
+        default ErrorFunction copy() {
+            return this;
+        }
+    }
+
+    record SearchGrid(double maxAngleCorrection, int numAnglesToTry, double maxOffsetCorrection, int numOffsetsToTry) {
+
+        public double angle(int angleIndex) {
+            return 2 * maxAngleCorrection * angleIndex / (numAnglesToTry - 1.0) - maxAngleCorrection;
+        }
+
+        public double offset(int offsetIndex) {
+            return 2 * maxOffsetCorrection * offsetIndex / (numOffsetsToTry - 1.0) - maxOffsetCorrection;
+        }
+    }
+
+    /**
+     * @param angle The angle correction, in turns
+     * @param x The correction in the x-direction, in meters
+     * @param y The correction in the y-direction, in meters
+     * @param error The error after applying this correction
+     */
+    record Correction(double angle, double x, double y, double error) {}
+}
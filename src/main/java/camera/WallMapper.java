@@ -1,6 +1,7 @@
 package camera;
 
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 import controller.updater.ControllerFunction;
 import state.DuckieState;
 
@@ -14,17 +15,33 @@ public class WallMapper implements ControllerFunction {
     private final DuckieState trackedState;
     private final double maxMapError;
     private final double maxCorrectionError;
+    private final SnapSearchStrategy searchStrategy;
+    private final WallOccupancyMap occupancyMap;
     private long lastTimestamp;
     private long lastDuckieTimestamp;
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
 
     public WallMapper(
             DuckieEstimations estimations, DuckieState trackedState,
             double maxMapError, double maxCorrectionError
+    ) {
+        this(estimations, trackedState, maxMapError, maxCorrectionError, SnapSearchStrategy.COARSE_TO_FINE);
+    }
+
+    /**
+     * @param searchStrategy The search strategy of the WallSnapper. For instance, a parallel strategy can be used
+     *                       when there are spare cores.
+     */
+    public WallMapper(
+            DuckieEstimations estimations, DuckieState trackedState,
+            double maxMapError, double maxCorrectionError, SnapSearchStrategy searchStrategy
     ) {
         this.estimations = estimations;
         this.trackedState = trackedState;
         this.maxMapError = maxMapError;
         this.maxCorrectionError = maxCorrectionError;
+        this.searchStrategy = searchStrategy;
+        this.occupancyMap = new WallOccupancyMap(estimations.walls);
     }
 
     @Override
@@ -44,25 +61,39 @@ public class WallMapper implements ControllerFunction {
                 duckiePosition = relativeDuckie.position();
             }
 
-            double angleRad = estimations.angle * 2 * PI;
-            var snapper = new WallSnapper(relativeWalls.walls(), new WallSnapper.FixedPose(
-                    estimations.x + CAMERA_OFFSET * cos(angleRad),
-                    estimations.y + CAMERA_OFFSET * sin(angleRad),
-                    estimations.angle
-            ));
+            estimations.pose.read(pose);
+            double angleRad = pose.angle * 2 * PI;
+            var cameraPose = new WallSnapper.FixedPose(
+                    pose.x + CAMERA_OFFSET * cos(angleRad),
+                    pose.y + CAMERA_OFFSET * sin(angleRad),
+                    pose.angle
+            );
+            var snapper = new WallSnapper(relativeWalls.walls(), cameraPose, searchStrategy);
             var snapResult = snapper.snap(0.02, 33, 0.02 * GRID_SIZE, 33, duckiePosition);
 
             if (snapResult.error() <= maxMapError && snapResult.walls().size() > 2) {
-                for (var wall : snapResult.walls()) estimations.walls.add(wall);
+                var correctedCamera = snapResult.correctedPose();
+                double maxDistance = 0.0;
+                for (var wall : relativeWalls.walls()) maxDistance = max(maxDistance, wall.distance());
+
+                // Walls with evidence that should have been visible, but were not seen, count as evidence against
+                // them. This includes walls that are not (or no longer) in the map, so that phantom walls decay. Walls
+                // that are farther away than the farthest wall that was seen are not counted, since the camera may
+                // simply not see that far.
+                occupancyMap.update(snapResult.walls(), correctedCamera, maxDistance + 0.5 * GRID_SIZE);
 
                 var snappedDuckie = snapResult.duckie();
                 if (snappedDuckie != null) estimations.duckie = snappedDuckie;
             }
 
+            // The PoseEstimator will apply the correction, since this runs in another execution group
             if (snapResult.error() <= maxCorrectionError) {
-                estimations.x = snapResult.correctedPose().x() - CAMERA_OFFSET * cos(angleRad);
-                estimations.y = snapResult.correctedPose().y() - CAMERA_OFFSET * sin(angleRad);
-                estimations.angle = snapResult.correctedPose().angle();
+                var correctedPose = snapResult.correctedPose();
+                estimations.poseCorrection.update(correction -> correction.plus(
+                        correctedPose.x() - cameraPose.x(),
+                        correctedPose.y() - cameraPose.y(),
+                        correctedPose.angle() - cameraPose.angle()
+                ));
             }
         }
     }
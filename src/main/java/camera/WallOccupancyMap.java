@@ -0,0 +1,234 @@
+package camera;
+
+import planner.GridWall;
+import simulator.WallGrid;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Accumulates evidence for each grid wall, in the form of log-odds: each time the camera sees a wall, its log-odds are
+ * increased by hitLogOdds, and each time the camera should have seen a wall but didn't, its log-odds are decreased by
+ * missLogOdds. A wall is considered to exist when its log-odds are at least the threshold. The walls that exist are
+ * published to a WallGrid (the thresholded view), so a single bad camera frame can't add or remove a wall.
+ * <p>
+ * The log-odds are stored in 2 primitive arrays (1 for each axis) over a bounding box that grows when needed, like the
+ * bit planes of the WallSnapshot. This class is not thread-safe: it should only be updated by 1 thread, but the view
+ * can be read by any thread.
+ */
+public class WallOccupancyMap {
+
+    private final WallGrid view;
+
+    /**
+     * The walls with positive log-odds, which is only updated when the sign of the log-odds of a wall changes
+     */
+    private final WallGrid candidates = new WallGrid();
+    private final float hitLogOdds, missLogOdds, minLogOdds, maxLogOdds, threshold;
+
+    private int minX, minY, width, height;
+    private float[] xLogOdds = new float[0], yLogOdds = new float[0];
+
+    /**
+     * Uses parameters that require 2 hits before a wall is added, and 3 misses before a well-established wall is
+     * removed
+     */
+    public WallOccupancyMap(WallGrid view) {
+        this(view, 0.7, 0.5, -2.0, 2.0, 1.0);
+    }
+
+    /**
+     * @param view The WallGrid to which the walls with enough evidence are published. This map assumes that nobody
+     *             else modifies it.
+     * @param hitLogOdds The log-odds that are added when a wall is seen
+     * @param missLogOdds The log-odds that are subtracted when a wall is not seen, but should have been
+     * @param minLogOdds The lower bound of the log-odds of each wall, which limits how long it takes to add a wall
+     *                   that was missed many times
+     * @param maxLogOdds The upper bound of the log-odds of each wall, which limits how long it takes to remove a wall
+     *                   that was seen many times
+     * @param threshold Walls exist when their log-odds are at least this threshold. Must be positive, since walls
+     *                  that have never been observed have log-odds 0.
+     */
+    public WallOccupancyMap(
+            WallGrid view, double hitLogOdds, double missLogOdds,
+            double minLogOdds, double maxLogOdds, double threshold
+    ) {
+        if (threshold <= 0.0) throw new IllegalArgumentException("threshold must be positive, but is " + threshold);
+        if (maxLogOdds < threshold) {
+            throw new IllegalArgumentException("maxLogOdds must be at least the threshold, but is " + maxLogOdds);
+        }
+        this.view = view;
+        this.hitLogOdds = (float) hitLogOdds;
+        this.missLogOdds = (float) missLogOdds;
+        this.minLogOdds = (float) minLogOdds;
+        this.maxLogOdds = (float) maxLogOdds;
+        this.threshold = (float) threshold;
+    }
+
+    private boolean isInBounds(int gridX, int gridY) {
+        return gridX >= minX && gridY >= minY && gridX < minX + width && gridY < minY + height;
+    }
+
+    private float[] plane(GridWall.Axis axis) {
+        if (axis == GridWall.Axis.X) return xLogOdds;
+        if (axis == GridWall.Axis.Y) return yLogOdds;
+        throw new IllegalArgumentException("Only walls along the X-axis or Y-axis have evidence, but got " + axis);
+    }
+
+    /**
+     * @return The log-odds that the given wall exists, which is 0 for walls that have never been observed
+     */
+    public double getLogOdds(GridWall wall) {
+        var plane = plane(wall.axis());
+        if (!isInBounds(wall.gridX(), wall.gridY())) return 0.0;
+        return plane[(wall.gridY() - minY) * width + (wall.gridX() - minX)];
+    }
+
+    /**
+     * Makes sure that the given wall is inside the bounding box, growing it by at least a factor 2 in each direction
+     * in which it grows
+     */
+    private void include(int gridX, int gridY) {
+        if (isInBounds(gridX, gridY)) return;
+
+        int newMinX = minX, newMinY = minY, newWidth = width, newHeight = height;
+        if (newWidth == 0) {
+            newMinX = gridX - 4;
+            newMinY = gridY - 4;
+            newWidth = 8;
+            newHeight = 8;
+        }
+        if (gridX < newMinX) {
+            int extra = Math.max(newMinX - gridX, newWidth);
+            newMinX -= extra;
+            newWidth += extra;
+        }
+        if (gridX >= newMinX + newWidth) newWidth += Math.max(gridX - newMinX - newWidth + 1, newWidth);
+        if (gridY < newMinY) {
+            int extra = Math.max(newMinY - gridY, newHeight);
+            newMinY -= extra;
+            newHeight += extra;
+        }
+        if (gridY >= newMinY + newHeight) newHeight += Math.max(gridY - newMinY - newHeight + 1, newHeight);
+
+        var newXLogOdds = new float[newWidth * newHeight];
+        var newYLogOdds = new float[newWidth * newHeight];
+        for (int y = 0; y < height; y++) {
+            int newStart = (y + minY - newMinY) * newWidth + (minX - newMinX);
+            System.arraycopy(xLogOdds, y * width, newXLogOdds, newStart, width);
+            System.arraycopy(yLogOdds, y * width, newYLogOdds, newStart, width);
+        }
+
+        minX = newMinX;
+        minY = newMinY;
+        width = newWidth;
+        height = newHeight;
+        xLogOdds = newXLogOdds;
+        yLogOdds = newYLogOdds;
+    }
+
+    /**
+     * Adds the evidence of 1 camera frame, and publishes the walls that start or stop existing to the view (as 1
+     * snapshot). Walls that are both hit and missed are treated as hits, and walls that occur more than once in the
+     * same frame are only counted once.
+     * @param hits The walls that the camera saw
+     * @param misses The walls that the camera should have seen, but didn't
+     */
+    public void update(Collection<GridWall> hits, Collection<GridWall> misses) {
+        var frame = new Frame();
+        addHits(hits, frame);
+        addMisses(misses, frame);
+        frame.publish();
+    }
+
+    /**
+     * Adds the evidence of 1 camera frame, where the misses are the expected walls (see findExpectedWalls) that were
+     * not seen. This includes walls that are below the threshold, so that the evidence for phantom walls can decay.
+     * The hits are added before the expected walls are computed, so that they can hide walls behind them.
+     * @param hits The walls that the camera saw
+     * @param camera The pose of the camera
+     * @param maxDistance Walls that are farther from the camera (in meters) don't count as misses
+     */
+    public void update(Collection<GridWall> hits, WallSnapper.FixedPose camera, double maxDistance) {
+        var frame = new Frame();
+        addHits(hits, frame);
+        frame.publishCandidates();
+        addMisses(findExpectedWalls(camera, maxDistance), frame);
+        frame.publish();
+    }
+
+    private int indexOf(GridWall wall) {
+        plane(wall.axis()); // Check the axis before growing
+        include(wall.gridX(), wall.gridY());
+        return (wall.gridY() - minY) * width + (wall.gridX() - minX);
+    }
+
+    private void addHits(Collection<GridWall> hits, Frame frame) {
+        for (var wall : hits) {
+            if (!frame.touchedWalls.add(wall)) continue;
+            int index = indexOf(wall);
+            var plane = plane(wall.axis());
+            float oldLogOdds = plane[index];
+            plane[index] = Math.min(maxLogOdds, oldLogOdds + hitLogOdds);
+            if (oldLogOdds < threshold && plane[index] >= threshold) frame.addedWalls.add(wall);
+            if (oldLogOdds <= 0f && plane[index] > 0f) frame.addedCandidates.add(wall);
+        }
+    }
+
+    private void addMisses(Collection<GridWall> misses, Frame frame) {
+        for (var wall : misses) {
+            if (!frame.touchedWalls.add(wall)) continue;
+            int index = indexOf(wall);
+            var plane = plane(wall.axis());
+            float oldLogOdds = plane[index];
+            plane[index] = Math.max(minLogOdds, oldLogOdds - missLogOdds);
+            if (oldLogOdds >= threshold && plane[index] < threshold) frame.removedWalls.add(wall);
+            if (oldLogOdds > 0f && plane[index] <= 0f) frame.removedCandidates.add(wall);
+        }
+    }
+
+    /**
+     * Finds the walls with positive log-odds (including walls that are below the threshold, and therefore not in the
+     * view) that the camera should see. These walls can hide each other, like in WallGrid.findVisibleWalls.
+     * @param camera The pose of the camera
+     * @param maxDistance Walls that are farther from the camera (in meters) are ignored
+     */
+    public List<GridWall> findExpectedWalls(WallSnapper.FixedPose camera, double maxDistance) {
+        var expectedWalls = new ArrayList<GridWall>();
+        for (var wall : candidates.findVisibleWalls(camera)) {
+            if (RelativeWall.fromGrid(wall, camera).distance() <= maxDistance) expectedWalls.add(wall);
+        }
+        return expectedWalls;
+    }
+
+    /**
+     * The changes of 1 camera frame, which are published at once
+     */
+    private class Frame {
+
+        final HashSet<GridWall> touchedWalls = new HashSet<>();
+        final List<GridWall> addedWalls = new ArrayList<>(), removedWalls = new ArrayList<>();
+        final List<GridWall> addedCandidates = new ArrayList<>(), removedCandidates = new ArrayList<>();
+
+        void publishCandidates() {
+            if (addedCandidates.isEmpty() && removedCandidates.isEmpty()) return;
+            candidates.update(addedCandidates, removedCandidates);
+            addedCandidates.clear();
+            removedCandidates.clear();
+        }
+
+        void publish() {
+            publishCandidates();
+            if (!addedWalls.isEmpty() || !removedWalls.isEmpty()) view.update(addedWalls, removedWalls);
+        }
+    }
+
+    /**
+     * @return The walls whose log-odds are at least the threshold, which is published by update
+     */
+    public WallGrid getView() {
+        return view;
+    }
+}
@@ -21,8 +21,21 @@ public class WallSnapper {
 
     private final List<RelativeWall> originalWalls;
     private final FixedPose estimatedPose;
+    private final SnapSearchStrategy searchStrategy;
 
+    private final double[] wallDistances, wallAngles;
+    private final ErrorKernel errorKernel;
+
+    /**
+     * Creates a WallSnapper that tries all candidate corrections
+     */
     public WallSnapper(Collection<RelativeWall> originalWalls, FixedPose estimatedPose) {
+        this(originalWalls, estimatedPose, SnapSearchStrategy.EXHAUSTIVE);
+    }
+
+    public WallSnapper(
+            Collection<RelativeWall> originalWalls, FixedPose estimatedPose, SnapSearchStrategy searchStrategy
+    ) {
         this.originalWalls = new ArrayList<>(originalWalls);
         this.originalWalls.sort((a, b) -> {
             if (a.distance() > b.distance()) return 1;
@@ -30,21 +43,19 @@ public class WallSnapper {
             return Double.compare(a.angle(), b.angle());
         });
         this.estimatedPose = estimatedPose;
-    }
-
-    double computeError(double deltaAngle, double deltaX, double deltaY) {
-        double testAngle = estimatedPose.angle + deltaAngle;
-        double testX = estimatedPose.x + deltaX;
-        double testY = estimatedPose.y + deltaY;
-
-        double error = 0.0;
+        this.searchStrategy = searchStrategy;
 
-        for (var wall : originalWalls) {
-            var transformedWall = transformWall(wall, testX, testY, testAngle);
-            error += transformedWall.snap().error();
+        this.wallDistances = new double[this.originalWalls.size()];
+        this.wallAngles = new double[this.originalWalls.size()];
+        for (int index = 0; index < wallDistances.length; index++) {
+            wallDistances[index] = this.originalWalls.get(index).distance();
+            wallAngles[index] = this.originalWalls.get(index).angle();
         }
+        this.errorKernel = new ErrorKernel();
+    }
 
-        return error;
+    double computeError(double deltaAngle, double deltaX, double deltaY) {
+        return errorKernel.computeError(deltaAngle, deltaX, deltaY);
     }
 
     public SnapResult snap(
@@ -52,40 +63,19 @@ public class WallSnapper {
             double maxOffsetCorrection, int numOffsetsToTry,
             RelativeWall duckie
     ) {
-        double minError = Double.MAX_VALUE;
-        double bestAngleCorrection = 0;
-        double bestCorrectionX = 0;
-        double bestCorrectionY = 0;
-
-        for (int angleCounter = 0; angleCounter < numAnglesToTry; angleCounter++) {
-            double angleToTry = 2 * maxAngleCorrection * angleCounter / (numAnglesToTry - 1.0) - maxAngleCorrection;
-
-            for (int xCounter = 0; xCounter < numOffsetsToTry; xCounter++) {
-                double xToTry = 2 * maxOffsetCorrection * xCounter / (numOffsetsToTry - 1.0) - maxOffsetCorrection;
-
-                for (int yCounter = 0; yCounter < numOffsetsToTry; yCounter++) {
-                    double yToTry = 2 * maxOffsetCorrection * yCounter / (numOffsetsToTry - 1.0) - maxOffsetCorrection;
-
-                    double newError = computeError(angleToTry, xToTry, yToTry);
-                    if (newError < minError) {
-                        minError = newError;
-                        bestAngleCorrection = angleToTry;
-                        bestCorrectionX = xToTry;
-                        bestCorrectionY = yToTry;
-                    }
-                }
-            }
-        }
-
-        double finalCorrectionX = bestCorrectionX;
-        double finalCorrectionY = bestCorrectionY;
-        double finalAngleCorrection = bestAngleCorrection;
+        var bestCorrection = searchStrategy.search(errorKernel, new SnapSearchStrategy.SearchGrid(
+                maxAngleCorrection, numAnglesToTry, maxOffsetCorrection, numOffsetsToTry
+        ));
+        double minError = bestCorrection.error();
+        double bestAngleCorrection = bestCorrection.angle();
+        double bestCorrectionX = bestCorrection.x();
+        double bestCorrectionY = bestCorrection.y();
 
         var walls = originalWalls.stream().map(wall -> {
             var transformedWall = transformWall(
-                    wall, estimatedPose.x + finalCorrectionX,
-                    estimatedPose.y + finalCorrectionY,
-                    estimatedPose.angle + finalAngleCorrection
+                    wall, estimatedPose.x + bestCorrectionX,
+                    estimatedPose.y + bestCorrectionY,
+                    estimatedPose.angle + bestAngleCorrection
             );
             return transformedWall.snap().wall();
         }).collect(Collectors.toList());
@@ -93,9 +83,9 @@ public class WallSnapper {
         GridWall snappedDuckie = null;
         if (duckie != null) {
             var transformedDuckie = transformWall(
-                    duckie, estimatedPose.x + finalCorrectionX,
-                    estimatedPose.y + finalCorrectionY,
-                    estimatedPose.angle + finalAngleCorrection
+                    duckie, estimatedPose.x + bestCorrectionX,
+                    estimatedPose.y + bestCorrectionY,
+                    estimatedPose.angle + bestAngleCorrection
             );
             snappedDuckie = new GridWall(
                     (int) Math.floor(transformedDuckie.x() / GRID_SIZE),
@@ -111,6 +101,45 @@ public class WallSnapper {
         ), minError);
     }
 
+    /**
+     * Computes the same errors as transforming and snapping each wall, but without allocating memory. The position of
+     * each wall relative to the camera only depends on the angle correction, so its cos and sin are cached until a
+     * different angle correction is evaluated. Each kernel must be used by at most 1 thread at a time.
+     */
+    class ErrorKernel implements SnapSearchStrategy.ErrorFunction {
+
+        private final double[] relativeX = new double[wallDistances.length];
+        private final double[] relativeY = new double[wallDistances.length];
+        private double cachedAngle = Double.NaN;
+
+        @Override
+        public double computeError(double deltaAngle, double deltaX, double deltaY) {
+            if (deltaAngle != cachedAngle) {
+                double testAngle = estimatedPose.angle + deltaAngle;
+                for (int index = 0; index < wallDistances.length; index++) {
+                    double transformingAngle = (testAngle + wallAngles[index]) * 2.0 * PI;
+                    relativeX[index] = wallDistances[index] * cos(transformingAngle);
+                    relativeY[index] = wallDistances[index] * sin(transformingAngle);
+                }
+                cachedAngle = deltaAngle;
+            }
+
+            double testX = estimatedPose.x + deltaX;
+            double testY = estimatedPose.y + deltaY;
+
+            double error = 0.0;
+            for (int index = 0; index < relativeX.length; index++) {
+                error += AbsoluteWall.snapError(testX + relativeX[index], testY + relativeY[index]);
+            }
+            return error;
+        }
+
+        @Override
+        public SnapSearchStrategy.ErrorFunction copy() {
+            return new ErrorKernel();
+        }
+    }
+
     public record FixedPose(double x, double y, double angle) {}
 
     public record SnapResult(Collection<GridWall> walls, GridWall duckie, FixedPose correctedPose, double error) {}
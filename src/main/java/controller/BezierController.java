@@ -3,6 +3,7 @@ package controller;
 import controller.desired.DesiredPose;
 import controller.desired.DesiredVelocity;
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 import controller.updater.ControllerFunction;
 import controller.util.BezierCurve;
 
@@ -18,6 +19,7 @@ public class BezierController implements ControllerFunction {
     private final DuckieEstimations estimations;
 
     private BezierCurve curve;
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
 
     public BezierController(
             Queue<DesiredPose> route, DesiredVelocity desiredVelocity,
@@ -34,6 +36,7 @@ public class BezierController implements ControllerFunction {
 
     @Override
     public void update(double deltaTime) {
+        estimations.pose.read(pose);
         var destinationPose = route.peek();
 
         // If the pose is cancelled, we should pick the next pose instead
@@ -48,21 +51,21 @@ public class BezierController implements ControllerFunction {
 
         if (destinationPose == null) {
             desiredVelocity.speed = 0.0;
-            desiredVelocity.angle = estimations.angle;
+            desiredVelocity.angle = pose.angle;
             return;
         }
 
         double speed = 0.18;
         if (destinationPose.backward) speed = -speed;
 
-        var dx = destinationPose.x - estimations.x;
-        var dy = destinationPose.y - estimations.y;
+        var dx = destinationPose.x - pose.x;
+        var dy = destinationPose.y - pose.y;
         var distance = sqrt(dx * dx + dy * dy);
 
-        double x1 = estimations.x;
-        double y1 = estimations.y;
+        double x1 = pose.x;
+        double y1 = pose.y;
 
-        double ownAngleRad = estimations.angle * 2 * Math.PI;
+        double ownAngleRad = pose.angle * 2 * Math.PI;
         double x2 = x1 + 0.3 * distance * Math.signum(speed) * cos(ownAngleRad);
         double y2 = y1 + 0.3 * distance * Math.signum(speed) * sin(ownAngleRad);
 
@@ -84,8 +87,8 @@ public class BezierController implements ControllerFunction {
             route.poll();
         }
 
-        double desiredDx = curve.getX(t) - estimations.x;
-        double desiredDy = curve.getY(t) - estimations.y;
+        double desiredDx = curve.getX(t) - pose.x;
+        double desiredDy = curve.getY(t) - pose.y;
 
         double desiredAngle;
         if (speed >= 0.0) {
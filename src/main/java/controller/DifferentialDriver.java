@@ -2,6 +2,7 @@ package controller;
 
 import controller.parameters.PIDParameters;
 import controller.util.MedianFilter;
+import controller.util.PIDCore;
 import state.DuckieControls;
 
 import controller.desired.DesiredVelocity;
@@ -9,8 +10,6 @@ import controller.desired.DesiredWheelSpeed;
 import controller.estimation.DuckieEstimations;
 import controller.updater.ControllerFunction;
 
-import java.util.LinkedList;
-
 import static java.lang.Math.abs;
 import static java.lang.Math.signum;
 
@@ -24,10 +23,7 @@ public class DifferentialDriver implements ControllerFunction {
 
     // Ramping parameters
     private double setPoint = 0;
-    private int derivativeBackPropagator = 25;
-
-    private LinkedList<ErrorSample> errorList = new LinkedList<>();
-    record ErrorSample(double timestamp, double error) {}
+    private final PIDCore pidCore = new PIDCore(10000, 25);
 
     private final MedianFilter filterP = new MedianFilter(1); // TODO Hm... increasing maxSize causes instability...
     private final MedianFilter filterD = new MedianFilter(1);
@@ -56,7 +52,8 @@ public class DifferentialDriver implements ControllerFunction {
         double errorI = 0;
         double errorD = 0;
 
-        double rawAngleToGoal = desiredVelocity.angle - estimations.angle;
+        double angle = estimations.pose.getAngle();
+        double rawAngleToGoal = desiredVelocity.angle - angle;
         double angleToGoal = smartAngle(rawAngleToGoal);
 
         // Setpoint ramping
@@ -67,41 +64,19 @@ public class DifferentialDriver implements ControllerFunction {
         if (setPoint < 0) setPoint += 1;
         if (setPoint > 1) setPoint -= 1;
 
-        // Window the error list
-        if(errorList.size() > 10000){
-            errorList.removeFirst();
-        }
-
         // Calculate PID
-        var error = smartAngle(setPoint - estimations.angle);
-
-        // Calculate Last error
-        double lastError = 0;
-        int lastErrorIndex = Math.max(errorList.size()-derivativeBackPropagator, 0);
-        if (!errorList.isEmpty()) {
-            lastError = errorList.get(lastErrorIndex).error;
-        }
+        var error = smartAngle(setPoint - angle);
+        pidCore.setIntegralLimit(pid.integralLimit);
+        pidCore.update(deltaTime, error);
 
         // Propotional
         errorP = error;
 
         // Intergral
-        for (int i = 0; i < errorList.size(); i++) {
-            errorI += errorList.get(i).error * errorList.get(i).timestamp;
-        }
-        errorList.add(new ErrorSample(deltaTime, error));
+        errorI = pidCore.getIntegral();
 
         // Derivative
-        double timeDiff = 0;
-        for (int i = lastErrorIndex; i < errorList.size() ; i++) {
-            timeDiff += errorList.get(i).timestamp;
-        }
-
-        if(timeDiff > 0){
-            errorD = (error - lastError) / timeDiff;
-        }else{
-            errorD = 0;
-        }
+        errorD = pidCore.getDerivative();
 
         filterP.insert(errorP);
         filterD.insert(errorD);
@@ -119,7 +94,7 @@ public class DifferentialDriver implements ControllerFunction {
         if(finalLeftSpeed != 0 && finalRightSpeed != 0){
             finalLeftSpeed *= (1 - signum(finalLeftSpeed) * angleCorrection);
             finalRightSpeed *= (1 + signum(finalRightSpeed) * angleCorrection);
-        } else errorList.clear();
+        } else pidCore.clear();
 
         controls.velLeft = finalLeftSpeed;
         controls.velRight = finalRightSpeed;
@@ -5,8 +5,7 @@ import controller.desired.DesiredWheelSpeed;
 import controller.estimation.DuckieEstimations;
 import controller.parameters.PIDParameters;
 import controller.updater.ControllerFunction;
-
-import java.util.LinkedList;
+import controller.util.PIDCore;
 
 import static java.lang.Math.abs;
 
@@ -21,10 +20,7 @@ public class DirectSpeedPIDController implements ControllerFunction {
     private double setPoint = 0;
     private double rampingSpeed = 1;
     private double speedInput = 0;
-    private int derivativeBackPropagator = 5;
-
-    private LinkedList<ErrorSample> errorList = new LinkedList<>();
-    record ErrorSample(double timestamp, double error) {}
+    private final PIDCore pidCore = new PIDCore(10000, 5);
     
     public DirectSpeedPIDController(
             DesiredVelocity desiredVelocity, DesiredWheelSpeed desiredWheelSpeed,
@@ -49,13 +45,13 @@ public class DirectSpeedPIDController implements ControllerFunction {
         if(abs(desiredVelocity.speed) < 0.01 && abs(speed) < 0.05){
             desiredWheelSpeed.rightSpeed = 0;
             desiredWheelSpeed.leftSpeed = 0;
-            errorList.clear();
+            pidCore.clear();
             setPoint = 0.0;
             return;
         }
 
         if (desiredVelocity.speed != 0 && abs(speed) > 0.1 && Math.signum(desiredVelocity.speed) != Math.signum(speed)) {
-            errorList.clear();
+            pidCore.clear();
             setPoint = 0.0;
         }
 
@@ -64,38 +60,17 @@ public class DirectSpeedPIDController implements ControllerFunction {
         //double errorSpeed = setPoint - speed;
         double errorSpeed = desiredVelocity.speed - speed;
 
-        // Window the error list
-        if(errorList.size() > 10000){
-            errorList.removeFirst();
-        }
-
-        // Calculate Last error
-        double lastError = 0;
-        int lastErrorIndex = Math.max(errorList.size()-derivativeBackPropagator, 0);
-        if (!errorList.isEmpty()) {
-            lastError = errorList.get(lastErrorIndex).error;
-        }
+        pidCore.setIntegralLimit(pid.integralLimit);
+        pidCore.update(deltaTime, errorSpeed);
 
         // Propotional
         errorP = errorSpeed;
 
         // Intergral
-        for (int i = 0; i < errorList.size(); i++) {
-            errorI += errorList.get(i).error * errorList.get(i).timestamp;
-        }
-        errorList.add(new ErrorSample(deltaTime, errorSpeed));
+        errorI = pidCore.getIntegral();
 
         // Derivative
-        double timeDiff = 0;
-        for (int i = lastErrorIndex; i < errorList.size() ; i++) {
-            timeDiff += errorList.get(i).timestamp;
-        }
-
-        if(timeDiff > 0){
-            errorD = (errorSpeed - lastError) / timeDiff;
-        }else{
-            errorD = 0;
-        }
+        errorD = pidCore.getDerivative();
 
         double correctionP = pid.Kp * errorP;
         double correctionI = pid.Ki * errorI;
@@ -33,7 +33,7 @@ public class KeyboardController implements ControllerFunction, KeyListener {
         if(timeSum < startTime)
         {
             timeSum += deltaTime;
-            desiredVelocity.angle = estimations.angle; //atan2(dy, dx) / (2 * Math.PI);
+            desiredVelocity.angle = estimations.pose.getAngle(); //atan2(dy, dx) / (2 * Math.PI);
             desiredVelocity.speed = 0;
             return;
         }
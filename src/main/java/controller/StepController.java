@@ -3,6 +3,7 @@ package controller;
 import controller.desired.DesiredPose;
 import controller.desired.DesiredVelocity;
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 import controller.updater.ControllerFunction;
 import state.DuckieControls;
 
@@ -19,6 +20,7 @@ public class StepController implements ControllerFunction {
     private final double maxAcceleration;
     private final double startTime = 2;
     private double timeSum = 0;
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
 
     public StepController(
             List<DesiredPose> route, DesiredVelocity desiredVelocity,
@@ -33,9 +35,10 @@ public class StepController implements ControllerFunction {
 
     @Override
     public void update(double deltaTime) {
+        estimations.pose.read(pose);
         if (route.isEmpty()) {
             desiredVelocity.speed = 0.0;
-            desiredVelocity.angle = estimations.angle;
+            desiredVelocity.angle = pose.angle;
             return;
         }
 
@@ -44,7 +47,7 @@ public class StepController implements ControllerFunction {
         if(timeSum < startTime)
         {
             timeSum += deltaTime;
-            desiredVelocity.angle = estimations.angle; //atan2(dy, dx) / (2 * Math.PI);
+            desiredVelocity.angle = pose.angle; //atan2(dy, dx) / (2 * Math.PI);
             desiredVelocity.speed = 0;
             return;
         }
@@ -56,8 +59,8 @@ public class StepController implements ControllerFunction {
         {
             nextDestinationPose = route.get(1);
         }
-        var dx = nextDestinationPose.x - estimations.x;
-        var dy = nextDestinationPose.y - estimations.y;
+        var dx = nextDestinationPose.x - pose.x;
+        var dy = nextDestinationPose.y - pose.y;
         var distanceToNext2 = sqrt(dx * dx + dy * dy);
 
         dx = nextDestinationPose.x - destinationPose.x;
@@ -65,8 +68,8 @@ public class StepController implements ControllerFunction {
         var distanceBetweenNext = sqrt(dx * dx + dy * dy);
         
         // Distance to next
-        dx = destinationPose.x - estimations.x;
-        dy = destinationPose.y - estimations.y;
+        dx = destinationPose.x - pose.x;
+        dy = destinationPose.y - pose.y;
         var distanceToNext = sqrt(dx * dx + dy * dy);
 
         // If the next² point is closer than the next point, remove the next point
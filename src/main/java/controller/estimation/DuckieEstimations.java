@@ -1,25 +1,21 @@
 package controller.estimation;
 
+import controller.updater.SharedSnapshot;
 import controller.util.Polynomial;
 import planner.GridWall;
 import planner.MazePlanner;
 import simulator.WallGrid;
-
-import static controller.util.DuckieBot.GRID_SIZE;
+import state.DuckiePose;
 
 public class DuckieEstimations {
     /**
-     * The (x, y) coordinates relative to the origin (starting point), in meters
+     * The (x, y) coordinates relative to the origin (starting point), in meters, and the angle, in turns
      */
-    public volatile double x = 0.5 * GRID_SIZE + 0.03, y = 0.5 * GRID_SIZE;
+    public final EstimatedPose pose = new EstimatedPose(DuckiePose.START_X, DuckiePose.START_Y, 0.0);
     /**
      * The estimated speed of the left and right wheel, in meters per second
      */
     public volatile double leftSpeed, rightSpeed;
-    /**
-     * The estimated angle of the duckiebot, in turns
-     */
-    public volatile double angle;
     /**
      * The estimated time between giving motor commands and changing the speed, in seconds
      */
@@ -27,8 +23,26 @@ public class DuckieEstimations {
 
     public volatile Polynomial distancePolynomial;
 
+    /**
+     * The sum of all pose corrections that were computed by the camera. The PoseEstimator applies each new correction
+     * to (x, y, angle), so that no other thread needs to write to the pose.
+     */
+    public final SharedSnapshot<PoseCorrection> poseCorrection = new SharedSnapshot<>(new PoseCorrection(0, 0, 0));
+
     public final WallGrid walls = new WallGrid();
 
     public volatile GridWall duckie;
     public MazePlanner.Cell[][] cells;
+
+    /**
+     * @param x The correction in the x-direction, in meters
+     * @param y The correction in the y-direction, in meters
+     * @param angle The angle correction, in turns
+     */
+    public record PoseCorrection(double x, double y, double angle) {
+
+        public PoseCorrection plus(double deltaX, double deltaY, double deltaAngle) {
+            return new PoseCorrection(x + deltaX, y + deltaY, angle + deltaAngle);
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package controller.estimation;
+
+/**
+ * The estimated (x, y, angle) of the duckiebot. Since these 3 values are updated together, readers should use
+ * {@link #read(Snapshot)} to get a coherent pose, rather than combining the results of getX(), getY() and getAngle().
+ * This is a sequence lock: the writer makes the version odd while it is writing, and readers retry until they read
+ * the same even version before and after reading the values. Readers never block the writer, and neither of them
+ * allocates memory. Writes must not happen concurrently.
+ */
+public class EstimatedPose {
+
+    private volatile long version;
+    private volatile double x, y, angle;
+
+    /**
+     * @param x The initial x-coordinate relative to the origin (starting point), in meters
+     * @param y The initial y-coordinate relative to the origin (starting point), in meters
+     * @param angle The initial angle, in turns
+     */
+    public EstimatedPose(double x, double y, double angle) {
+        this.x = x;
+        this.y = y;
+        this.angle = angle;
+    }
+
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    public void write(double x, double y, double angle) {
+        version += 1;
+        this.x = x;
+        this.y = y;
+        this.angle = angle;
+        version += 1;
+    }
+
+    /**
+     * Reads a coherent pose into the given snapshot
+     * @return The version of the pose, which is incremented by 2 for each write
+     */
+    public long read(Snapshot snapshot) {
+        while (true) {
+            long versionBefore = version;
+            if ((versionBefore & 1) == 0) {
+                double currentX = x;
+                double currentY = y;
+                double currentAngle = angle;
+                if (version == versionBefore) {
+                    snapshot.version = versionBefore;
+                    snapshot.x = currentX;
+                    snapshot.y = currentY;
+                    snapshot.angle = currentAngle;
+                    return versionBefore;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return The x-coordinate relative to the origin (starting point), in meters
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return The y-coordinate relative to the origin (starting point), in meters
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The angle of the duckiebot, in turns
+     */
+    public double getAngle() {
+        return angle;
+    }
+
+    /**
+     * A reusable container for poses read from an EstimatedPose
+     */
+    public static class Snapshot {
+
+        public long version;
+        public double x, y, angle;
+
+        @Override
+        public String toString() {
+            return String.format("Pose(%.3f, %.3f, angle=%.3f)", x, y, angle);
+        }
+    }
+}
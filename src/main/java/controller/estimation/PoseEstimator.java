@@ -2,6 +2,7 @@ package controller.estimation;
 
 import controller.updater.ControllerFunction;
 import state.DuckieState;
+import state.EncoderSlot;
 
 import static controller.util.DuckieBot.*;
 import static java.lang.Math.cos;
@@ -12,45 +13,77 @@ public class PoseEstimator implements ControllerFunction {
     private final DuckieState trackedState;
     private final DuckieEstimations estimations;
 
-    private DuckieState.WheelEncoderEntry lastLeftWheelTick, lastRightWheelTick;
+    private final EncoderSlot.Sample lastLeftWheelTick = new EncoderSlot.Sample();
+    private final EncoderSlot.Sample lastRightWheelTick = new EncoderSlot.Sample();
+    private final EncoderSlot.Sample currentLeftTicks = new EncoderSlot.Sample();
+    private final EncoderSlot.Sample currentRightTicks = new EncoderSlot.Sample();
+    private DuckieEstimations.PoseCorrection lastCorrection;
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
 
     public PoseEstimator(DuckieState trackedState, DuckieEstimations estimations) {
         this.trackedState = trackedState;
         this.estimations = estimations;
 
-        this.lastLeftWheelTick = trackedState.leftWheelEncoder;
-        this.lastRightWheelTick = trackedState.rightWheelEncoder;
+        trackedState.leftWheelEncoder.read(lastLeftWheelTick);
+        trackedState.rightWheelEncoder.read(lastRightWheelTick);
+        this.lastCorrection = estimations.poseCorrection.get();
     }
 
-    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    private void applyCorrection() {
+        var correction = estimations.poseCorrection.get();
+        if (correction == lastCorrection) return;
+
+        estimations.pose.read(pose);
+        double newAngle = pose.angle + correction.angle() - lastCorrection.angle();
+        if (newAngle < 0) newAngle += 1;
+        if (newAngle > 1) newAngle -= 1;
+        estimations.pose.write(
+                pose.x + correction.x() - lastCorrection.x(),
+                pose.y + correction.y() - lastCorrection.y(),
+                newAngle
+        );
+
+        lastCorrection = correction;
+    }
+
+    /**
+     * This is called whenever new wheel encoder values arrive, which also happens while the wheels are not turning, so
+     * camera corrections are applied there as well. This must always be called by the same thread: the perception
+     * group only publishes its corrections via the poseCorrection snapshot, and never calls this method, so the motor
+     * thread never has to wait for a lock.
+     */
     @Override
     public void update(double deltaTime) {
-        if (this.lastLeftWheelTick == null || this.lastRightWheelTick == null) {
-            this.lastLeftWheelTick = trackedState.leftWheelEncoder;
-            this.lastRightWheelTick = trackedState.rightWheelEncoder;
+        applyCorrection();
+
+        // A sequence number of 0 means that the slot hasn't received any value yet
+        if (lastLeftWheelTick.sequence == 0 || lastRightWheelTick.sequence == 0) {
+            trackedState.leftWheelEncoder.read(lastLeftWheelTick);
+            trackedState.rightWheelEncoder.read(lastRightWheelTick);
         }
-        var currentLeftTicks = trackedState.leftWheelEncoder;
-        var currentRightTicks = trackedState.rightWheelEncoder;
+        trackedState.leftWheelEncoder.read(currentLeftTicks);
+        trackedState.rightWheelEncoder.read(currentRightTicks);
 
-        if (currentLeftTicks == null || currentRightTicks == null || lastLeftWheelTick == null || lastRightWheelTick == null) return;
-        if (currentLeftTicks == this.lastLeftWheelTick && currentRightTicks == this.lastRightWheelTick) return;
+        if (currentLeftTicks.sequence == 0 || currentRightTicks.sequence == 0 || lastLeftWheelTick.sequence == 0 || lastRightWheelTick.sequence == 0) return;
+        if (currentLeftTicks.sequence == lastLeftWheelTick.sequence && currentRightTicks.sequence == lastRightWheelTick.sequence) return;
 
-        double leftDistance = (currentLeftTicks.value() - lastLeftWheelTick.value()) * WHEEL_RADIUS * 2 * Math.PI / WHEEL_TICKS_PER_TURN;
-        double rightDistance = (currentRightTicks.value() - lastRightWheelTick.value()) * WHEEL_RADIUS * 2 * Math.PI / WHEEL_TICKS_PER_TURN;
+        double leftDistance = (currentLeftTicks.ticks - lastLeftWheelTick.ticks) * WHEEL_RADIUS * 2 * Math.PI / WHEEL_TICKS_PER_TURN;
+        double rightDistance = (currentRightTicks.ticks - lastRightWheelTick.ticks) * WHEEL_RADIUS * 2 * Math.PI / WHEEL_TICKS_PER_TURN;
 
+        estimations.pose.read(pose);
         double averageDistance = (leftDistance + rightDistance) * 0.5;
-        double angleRadians = estimations.angle * 2 * Math.PI;
-        estimations.x += averageDistance * cos(angleRadians);
-        estimations.y += averageDistance * sin(angleRadians);
+        double angleRadians = pose.angle * 2 * Math.PI;
+        double newX = pose.x + averageDistance * cos(angleRadians);
+        double newY = pose.y + averageDistance * sin(angleRadians);
 
         double deltaAngle = (rightDistance - leftDistance) / (2 * Math.PI * DISTANCE_BETWEEN_WHEELS);
-        double newAngle = estimations.angle + deltaAngle;
+        double newAngle = pose.angle + deltaAngle;
         if (newAngle < 0) newAngle += 1;
         if (newAngle > 1) newAngle -= 1;
 
-        estimations.angle = newAngle;
+        estimations.pose.write(newX, newY, newAngle);
 
-        lastLeftWheelTick = currentLeftTicks;
-        lastRightWheelTick = currentRightTicks;
+        lastLeftWheelTick.set(currentLeftTicks);
+        lastRightWheelTick.set(currentRightTicks);
     }
 }
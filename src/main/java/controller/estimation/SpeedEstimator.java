@@ -1,64 +1,59 @@
 package controller.estimation;
 
 import controller.updater.ControllerFunction;
-import controller.util.Polynomial;
-import state.DuckieState;
+import controller.util.SlidingLeastSquares;
+import state.EncoderSlot;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.function.DoubleConsumer;
-import java.util.function.Supplier;
+import java.util.function.LongSupplier;
 
 import static controller.util.DuckieBot.*;
 
 public class SpeedEstimator implements ControllerFunction {
 
-    private final Supplier<DuckieState.WheelEncoderEntry> wheelTicks;
+    private final EncoderSlot wheelTicks;
     private final DoubleConsumer speedEstimation;
+    private final LongSupplier clock;
+    private final EncoderSlot.Sample currentTicks = new EncoderSlot.Sample();
 
-    private final List<PositionEntry> lastEntries = new LinkedList<>();
+    private final SlidingLeastSquares lastEntries = new SlidingLeastSquares(1, 256);
     private long startEncoderTime, startJavaTime;
 
-    public SpeedEstimator(Supplier<DuckieState.WheelEncoderEntry> wheelTicks, DoubleConsumer speedEstimation) {
+    public SpeedEstimator(EncoderSlot wheelTicks, DoubleConsumer speedEstimation) {
+        this(wheelTicks, speedEstimation, System::nanoTime);
+    }
+
+    /**
+     * @param clock Provides the current time, in nanoseconds. This is normally System.nanoTime, but benchmarks and
+     *              simulations can use their own clock.
+     */
+    public SpeedEstimator(EncoderSlot wheelTicks, DoubleConsumer speedEstimation, LongSupplier clock) {
         this.wheelTicks = wheelTicks;
         this.speedEstimation = speedEstimation;
+        this.clock = clock;
     }
 
     @Override
     public void update(double deltaTime) {
-        var currentTicks = wheelTicks.get();
-        if (currentTicks == null) return;
+        if (wheelTicks.read(currentTicks) == 0) return;
 
         if (startEncoderTime == 0) {
-            startEncoderTime = currentTicks.timestamp();
-            startJavaTime = System.nanoTime();
+            startEncoderTime = currentTicks.timestamp;
+            startJavaTime = clock.getAsLong();
         }
 
         double maxTimeDifference = 0.15; // was 0.05
 
-        var nextEntry = new PositionEntry(currentTicks.value(), (currentTicks.timestamp() - startEncoderTime) / 1_000_000_000.0);
-        double currentTime = (System.nanoTime() - startJavaTime) / 1_000_000_000.0;
-        lastEntries.removeIf(entry -> entry.timeStamp < currentTime - maxTimeDifference);
-        lastEntries.add(0, nextEntry);
+        double distance = currentTicks.ticks * WHEEL_CIRCUMFERENCE / WHEEL_TICKS_PER_TURN;
+        double encoderTime = (currentTicks.timestamp - startEncoderTime) / 1_000_000_000.0;
+        double currentTime = (clock.getAsLong() - startJavaTime) / 1_000_000_000.0;
+        lastEntries.removeBefore(currentTime - maxTimeDifference);
+        lastEntries.add(encoderTime, distance);
 
-        var poly = Polynomial.fit(lastEntries, 1);
-        if (poly != null) {
-            speedEstimation.accept(poly.getDerivative().get(currentTime));
+        if (lastEntries.fit()) {
+            speedEstimation.accept(lastEntries.getDerivative(currentTime));
         } else {
             speedEstimation.accept(0.0);
         }
     }
-
-    private record PositionEntry(int wheelTicks, double timeStamp) implements Polynomial.Entry {
-
-        @Override
-        public double getT() {
-            return timeStamp;
-        }
-
-        @Override
-        public double getY() {
-            return wheelTicks * WHEEL_CIRCUMFERENCE / WHEEL_TICKS_PER_TURN;
-        }
-    }
 }
@@ -5,6 +5,12 @@ public class PIDParameters {
     public volatile double Kp, Ki, Kd;
     public volatile double correctionP, correctionI, correctionD;
 
+    /**
+     * The maximum absolute value of the integral of the error (before it is multiplied by Ki), to prevent integral
+     * windup. By default, there is no limit.
+     */
+    public volatile double integralLimit = Double.POSITIVE_INFINITY;
+
     public PIDParameters(double Kp, double Ki, double Kd) {
         this.Kp = Kp;
         this.Ki = Ki;
@@ -4,10 +4,26 @@ class ControllerEntry {
 
     final ControllerFunction controller;
     final int period;
+    final ControllerStatistics statistics;
+    final DataDependencies dependencies;
+
+    /**
+     * The index of the stage in which this controller is updated: all controllers in the same stage may be updated
+     * in parallel, and all controllers in a stage must be finished before the next stage starts.
+     */
+    int stage;
     long lastUpdateTime = System.nanoTime();
 
-    ControllerEntry(ControllerFunction controller, int period) {
+    /**
+     * The System.nanoTime() (or virtual time) at which this controller should be updated next. This is also the deadline of its
+     * previous update: when the previous update is still running at this time, the controller overran its period.
+     */
+    long nextReleaseTime;
+
+    ControllerEntry(ControllerFunction controller, int period, long budget, DataDependencies dependencies) {
         this.controller = controller;
         this.period = period;
+        this.dependencies = dependencies;
+        this.statistics = new ControllerStatistics(controller.getClass().getSimpleName(), budget);
     }
 }
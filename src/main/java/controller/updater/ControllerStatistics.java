@@ -0,0 +1,107 @@
+package controller.updater;
+
+import java.util.Arrays;
+
+/**
+ * Tracks how long the updates of 1 controller take, and how often they exceed their budget or deadline. The updater
+ * thread writes these statistics without allocating memory, and other threads (like the MonitorBoard) can read them
+ * at any time using {@link #snapshot()}. Since the reader doesn't synchronize with the updater thread, a snapshot may
+ * be slightly inconsistent, which is fine for monitoring.
+ */
+public class ControllerStatistics {
+
+    /**
+     * The number of recent execution times that are used to compute the 99th percentile
+     */
+    private static final int RECENT_CAPACITY = 1024;
+
+    private final String name;
+    private final long budget;
+
+    private final long[] recentExecutionTimes = new long[RECENT_CAPACITY];
+
+    /**
+     * The index in recentExecutionTimes where the next execution time will be written
+     */
+    private volatile int recentIndex;
+
+    private volatile long updateCount, totalExecutionTime;
+    private volatile long minExecutionTime = Long.MAX_VALUE, maxExecutionTime;
+    private volatile long budgetOverrunCount, deadlineMissCount;
+    private volatile long consecutiveOverruns, maxConsecutiveOverruns;
+
+    ControllerStatistics(String name, long budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    /**
+     * Records 1 update of the controller
+     * @param executionTime The time it took to run the update, in nanoseconds
+     * @param missedDeadline Whether the update finished after the deadline of the controller (its next release time)
+     */
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    void record(long executionTime, boolean missedDeadline) {
+        int index = recentIndex;
+        recentExecutionTimes[index] = executionTime;
+        recentIndex = (index + 1) % RECENT_CAPACITY;
+
+        updateCount += 1;
+        totalExecutionTime += executionTime;
+        if (executionTime < minExecutionTime) minExecutionTime = executionTime;
+        if (executionTime > maxExecutionTime) maxExecutionTime = executionTime;
+
+        if (executionTime > budget) {
+            budgetOverrunCount += 1;
+            consecutiveOverruns += 1;
+            if (consecutiveOverruns > maxConsecutiveOverruns) maxConsecutiveOverruns = consecutiveOverruns;
+        } else consecutiveOverruns = 0;
+
+        if (missedDeadline) deadlineMissCount += 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Snapshot snapshot() {
+        long count = updateCount;
+        int numRecent = (int) Math.min(count, RECENT_CAPACITY);
+        long[] recent = Arrays.copyOf(recentExecutionTimes, numRecent);
+        Arrays.sort(recent);
+        long p99 = numRecent > 0 ? recent[(int) Math.ceil(0.99 * numRecent) - 1] : 0;
+
+        return new Snapshot(
+                name, budget * 1e-9, count,
+                count > 0 ? minExecutionTime * 1e-9 : 0.0,
+                count > 0 ? totalExecutionTime * 1e-9 / count : 0.0,
+                p99 * 1e-9, maxExecutionTime * 1e-9,
+                budgetOverrunCount, deadlineMissCount, consecutiveOverruns, maxConsecutiveOverruns
+        );
+    }
+
+    /**
+     * The statistics of 1 controller at some point in time. All durations are in seconds. The 99th percentile is
+     * computed over the last 1024 updates, whereas the other durations are computed over all updates.
+     */
+    public record Snapshot(
+            String name, double budget, long updateCount,
+            double minExecutionTime, double averageExecutionTime, double p99ExecutionTime, double maxExecutionTime,
+            long budgetOverruns, long deadlineMisses, long consecutiveOverruns, long maxConsecutiveOverruns
+    ) {
+
+        public boolean isOverBudget() {
+            return consecutiveOverruns > 0 || p99ExecutionTime > budget;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%s: budget=%.3fms min=%.3fms avg=%.3fms p99=%.3fms max=%.3fms overruns=%d (%d in a row, max %d) deadline misses=%d",
+                    name, budget * 1e3, minExecutionTime * 1e3, averageExecutionTime * 1e3,
+                    p99ExecutionTime * 1e3, maxExecutionTime * 1e3,
+                    budgetOverruns, consecutiveOverruns, maxConsecutiveOverruns, deadlineMisses
+            );
+        }
+    }
+}
@@ -1,47 +1,317 @@
 package controller.updater;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
-
-import static java.lang.Thread.sleep;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 
 public class ControllerUpdater {
 
+    /**
+     * The default duration of 1 tick, in nanoseconds
+     */
+    public static final long DEFAULT_TICK_DURATION = 1_000_000;
+
+    /**
+     * When the next deadline is closer than this (in nanoseconds), the updater will spin rather than park, since
+     * parkNanos tends to oversleep by tens of microseconds.
+     */
+    private static final long SPIN_DURATION = 50_000;
+
+    /**
+     * The duration of 1 tick, in nanoseconds. The period of each controller is expressed in ticks.
+     */
+    private final long tickDuration;
+
     private final List<ControllerEntry> controllers = new ArrayList<>();
+    private final List<List<ControllerEntry>> stages = new ArrayList<>();
+    private final ExecutorService workers;
+
+    private final List<ControllerEntry> dueEntries = new ArrayList<>();
+    private final List<Future<?>> pendingUpdates = new ArrayList<>();
+
+    private volatile long tickCount, overrunCount, skippedTickCount;
+    private volatile long totalJitter, maxJitter;
+
+    /**
+     * The virtual time of the next tick that advanceTo() will run, or -1 when advanceTo() hasn't been called yet
+     */
+    private long nextVirtualTickTime = -1;
+    private boolean started;
+
+    /**
+     * Creates an updater with 1 tick per millisecond, that updates all controllers on the thread that calls start()
+     */
+    public ControllerUpdater() {
+        this(DEFAULT_TICK_DURATION, 0);
+    }
 
+    /**
+     * Creates an updater that can update independent controllers in parallel
+     * @param tickDuration The duration of 1 tick, in nanoseconds
+     * @param numWorkerThreads The number of extra threads that can update controllers while the thread that called
+     *                         start() updates another controller. When this is 0, no extra threads will be created.
+     */
+    public ControllerUpdater(long tickDuration, int numWorkerThreads) {
+        this.tickDuration = tickDuration;
+        if (numWorkerThreads > 0) {
+            this.workers = Executors.newFixedThreadPool(numWorkerThreads, task -> {
+                var thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else this.workers = null;
+    }
+
+    /**
+     * Adds a controller whose budget is its entire period, and whose dependencies are unknown. Controllers with
+     * unknown dependencies are never updated in parallel with other controllers.
+     */
     public void addController(ControllerFunction controller, int period) {
-        controllers.add(new ControllerEntry(controller, period));
+        addController(controller, period, null);
     }
 
+    /**
+     * Adds a controller whose dependencies are unknown. Controllers with unknown dependencies are never updated in
+     * parallel with other controllers.
+     * @param budget The maximum time (in seconds) that 1 update of the controller should take. This is only used for
+     *               the statistics: the updater will not interrupt controllers that exceed their budget.
+     */
+    public void addController(ControllerFunction controller, int period, double budget) {
+        addController(controller, period, budget, null);
+    }
+
+    /**
+     * Adds a controller whose budget is its entire period
+     */
+    public void addController(ControllerFunction controller, int period, DataDependencies dependencies) {
+        addEntry(new ControllerEntry(controller, period, period * tickDuration, dependencies));
+    }
+
+    /**
+     * Adds a controller that should be updated once every `period` ticks
+     * @param budget The maximum time (in seconds) that 1 update of the controller should take. This is only used for
+     *               the statistics: the updater will not interrupt controllers that exceed their budget.
+     * @param dependencies The data that the controller reads and writes, or null when unknown. When 2 controllers
+     *                     conflict, the one that was added first will be updated first.
+     */
+    public void addController(
+            ControllerFunction controller, int period, double budget, DataDependencies dependencies
+    ) {
+        addEntry(new ControllerEntry(controller, period, (long) (budget * 1_000_000_000.0), dependencies));
+    }
+
+    private void addEntry(ControllerEntry newEntry) {
+        // The new controller must run after all controllers it conflicts with
+        newEntry.stage = 0;
+        for (var entry : controllers) {
+            if (DataDependencies.conflict(entry.dependencies, newEntry.dependencies)) {
+                newEntry.stage = Math.max(newEntry.stage, entry.stage + 1);
+            }
+        }
+
+        controllers.add(newEntry);
+        while (stages.size() <= newEntry.stage) stages.add(new ArrayList<>());
+        stages.get(newEntry.stage).add(newEntry);
+    }
+
+    /**
+     * Waits until System.nanoTime() reaches the given deadline: parks while the deadline is far away, and spins during
+     * the last few microseconds.
+     */
+    static void waitUntil(long deadline) {
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            if (remaining > SPIN_DURATION) LockSupport.parkNanos(remaining - SPIN_DURATION);
+            else Thread.onSpinWait();
+        }
+    }
+
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
     public void start() {
-        try {
-            long updateCounter = 0;
-
-            long startTime = System.currentTimeMillis();
-            //noinspection InfiniteLoopStatement
-            while (true) {
-
-                while (true) {
-                    long currentTime = System.currentTimeMillis();
-                    if (updateCounter < (currentTime - startTime)) break;
-                    //noinspection BusyWait
-                    sleep(1);
-                }
-
-                updateCounter += 1;
-
-                long currentTime = System.nanoTime();
-
-                for (var entry : controllers) {
-                    if (updateCounter % entry.period == 0) {
-                        double deltaTime = (currentTime - entry.lastUpdateTime) / 1_000_000_000.0;
-                        entry.controller.update(deltaTime);
-                        entry.lastUpdateTime = currentTime;
-                    }
-                }
+        if (nextVirtualTickTime != -1) throw new IllegalStateException("This updater is already used in virtual time");
+        started = true;
+        long startTime = System.nanoTime();
+        for (var entry : controllers) {
+            entry.lastUpdateTime = startTime;
+            entry.nextReleaseTime = startTime + entry.period * tickDuration;
+        }
+
+        long tickTime = startTime + tickDuration;
+
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            waitUntil(tickTime);
+
+            long currentTime = System.nanoTime();
+            long jitter = currentTime - tickTime;
+            tickCount += 1;
+            totalJitter += jitter;
+            if (jitter > maxJitter) maxJitter = jitter;
+
+            runTick(tickTime, currentTime);
+            tickTime += tickDuration;
+
+            // When this tick took longer than 1 tick, skip the ticks that were missed rather than running them in a
+            // burst. This keeps the tick times on the original grid.
+            long finishTime = System.nanoTime();
+            if (finishTime > tickTime) {
+                overrunCount += 1;
+                long missedTicks = (finishTime - tickTime) / tickDuration;
+                skippedTickCount += missedTicks;
+                tickTime += missedTicks * tickDuration;
+            }
+        }
+    }
+
+    /**
+     * Runs all ticks whose time is at most the given virtual time, without waiting: each tick is exactly tickDuration
+     * nanoseconds after the previous tick, regardless of how long the controllers take. This allows headless
+     * simulations to run much faster than real time. The first tick is at virtual time tickDuration. This can't be
+     * combined with start().
+     * @param time The virtual time, in nanoseconds
+     */
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    public void advanceTo(long time) {
+        if (started) throw new IllegalStateException("This updater is already running in real time");
+        if (nextVirtualTickTime == -1) {
+            for (int index = 0; index < controllers.size(); index++) {
+                var entry = controllers.get(index);
+                entry.lastUpdateTime = 0;
+                entry.nextReleaseTime = entry.period * tickDuration;
+            }
+            nextVirtualTickTime = tickDuration;
+        }
+
+        while (nextVirtualTickTime <= time) {
+            tickCount += 1;
+            runTick(nextVirtualTickTime, nextVirtualTickTime);
+            nextVirtualTickTime += tickDuration;
+        }
+    }
+
+    /**
+     * Runs 1 tick. This uses indexed loops rather than iterators, since it runs every tick, and shouldn't allocate.
+     */
+    private void runTick(long tickTime, long currentTime) {
+        for (int stageIndex = 0; stageIndex < stages.size(); stageIndex++) {
+            var stage = stages.get(stageIndex);
+            dueEntries.clear();
+            for (int index = 0; index < stage.size(); index++) {
+                var entry = stage.get(index);
+                if (entry.nextReleaseTime <= tickTime) dueEntries.add(entry);
+            }
+            updateStage(tickTime, currentTime);
+        }
+    }
+
+    /**
+     * Updates all controllers in dueEntries, and waits until they are finished
+     */
+    private void updateStage(long tickTime, long currentTime) {
+        if (dueEntries.isEmpty()) return;
+        if (workers == null || dueEntries.size() == 1) {
+            for (int index = 0; index < dueEntries.size(); index++) {
+                update(dueEntries.get(index), tickTime, currentTime);
             }
+            return;
+        }
+
+        pendingUpdates.clear();
+        for (int index = 1; index < dueEntries.size(); index++) {
+            var entry = dueEntries.get(index);
+            pendingUpdates.add(workers.submit(() -> update(entry, tickTime, currentTime)));
+        }
+        update(dueEntries.get(0), tickTime, currentTime);
+
+        try {
+            for (int index = 0; index < pendingUpdates.size(); index++) pendingUpdates.get(index).get();
         } catch (InterruptedException shouldNotHappen) {
             throw new Error(shouldNotHappen);
+        } catch (ExecutionException failed) {
+            throw new RuntimeException(failed.getCause());
         }
     }
+
+    private void update(ControllerEntry entry, long tickTime, long currentTime) {
+        double deltaTime = (currentTime - entry.lastUpdateTime) / 1_000_000_000.0;
+        long entryStartTime = System.nanoTime();
+        entry.controller.update(deltaTime);
+        long entryFinishTime = System.nanoTime();
+        entry.lastUpdateTime = currentTime;
+
+        // The releases stay on the original grid, even when the controller was too late
+        long entryPeriod = entry.period * tickDuration;
+        entry.nextReleaseTime += entryPeriod;
+
+        // In virtual time, the deadline is missed when the update would have been too slow in real time
+        long executionTime = entryFinishTime - entryStartTime;
+        boolean missedDeadline = started ? entryFinishTime > entry.nextReleaseTime : executionTime > entryPeriod;
+        entry.statistics.record(executionTime, missedDeadline);
+        if (entry.nextReleaseTime <= tickTime) {
+            entry.nextReleaseTime += entryPeriod * ((tickTime - entry.nextReleaseTime) / entryPeriod + 1);
+        }
+    }
+
+    /**
+     * @return A snapshot of the statistics of each controller, in the order in which they were added
+     */
+    public List<ControllerStatistics.Snapshot> getStatistics() {
+        var result = new ArrayList<ControllerStatistics.Snapshot>(controllers.size());
+        for (var entry : controllers) result.add(entry.statistics.snapshot());
+        return result;
+    }
+
+    /**
+     * Prints the tick statistics and the statistics of each controller. This is useful when there is no MonitorBoard.
+     */
+    public void printStatistics(PrintStream output) {
+        output.printf(
+                "%d ticks, %d overruns, %d skipped, jitter avg=%.3fms max=%.3fms%n", getTickCount(), getOverrunCount(),
+                getSkippedTickCount(), getAverageJitter() * 1e3, getMaxJitter() * 1e3
+        );
+        for (var statistics : getStatistics()) output.println("    " + statistics);
+    }
+
+    /**
+     * @return The number of ticks that have been executed since start() was called
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return The number of ticks whose controllers were still running when the next tick should have started
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * @return The number of ticks that were skipped because an earlier tick overran
+     */
+    public long getSkippedTickCount() {
+        return skippedTickCount;
+    }
+
+    /**
+     * @return The average time between the scheduled start of a tick and its actual start, in seconds
+     */
+    public double getAverageJitter() {
+        long ticks = tickCount;
+        if (ticks == 0) return 0.0;
+        return totalJitter / (ticks * 1_000_000_000.0);
+    }
+
+    /**
+     * @return The largest time between the scheduled start of a tick and its actual start, in seconds
+     */
+    public double getMaxJitter() {
+        return maxJitter / 1_000_000_000.0;
+    }
 }
@@ -0,0 +1,60 @@
+package controller.updater;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Describes which (named) pieces of shared data a controller reads and writes. The ControllerUpdater uses this to
+ * find controllers that can safely be updated in parallel: 2 controllers conflict when one of them writes data that
+ * the other one reads or writes. The names are arbitrary, as long as all controllers use the same name for the same
+ * data, for instance "desiredVelocity" or "leftSpeed".
+ */
+public class DataDependencies {
+
+    public static DataDependencies reads(String... names) {
+        return new DataDependencies(Set.of(names), Set.of());
+    }
+
+    public static DataDependencies writes(String... names) {
+        return new DataDependencies(Set.of(), Set.of(names));
+    }
+
+    private final Set<String> reads, writes;
+
+    private DataDependencies(Set<String> reads, Set<String> writes) {
+        this.reads = reads;
+        this.writes = writes;
+    }
+
+    public DataDependencies andReads(String... names) {
+        var newReads = new HashSet<>(reads);
+        newReads.addAll(Set.of(names));
+        return new DataDependencies(newReads, writes);
+    }
+
+    public DataDependencies andWrites(String... names) {
+        var newWrites = new HashSet<>(writes);
+        newWrites.addAll(Set.of(names));
+        return new DataDependencies(reads, newWrites);
+    }
+
+    /**
+     * @return True if the controllers with these dependencies and the other dependencies must not be updated at the
+     * same time. When either of them is null (unknown dependencies), they are assumed to conflict.
+     */
+    static boolean conflict(DataDependencies a, DataDependencies b) {
+        if (a == null || b == null) return true;
+        for (String name : a.writes) {
+            if (b.reads.contains(name) || b.writes.contains(name)) return true;
+        }
+        for (String name : b.writes) {
+            if (a.reads.contains(name)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "DataDependencies(reads=" + reads + ", writes=" + writes + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package controller.updater;
+
+import java.io.PrintStream;
+
+/**
+ * A group of controllers that is updated by its own thread, at its own rate and with its own thread priority. Slow
+ * groups (like perception and planning) can therefore never delay fast groups (like motor control). Groups should
+ * only exchange data via volatile fields or {@link SharedSnapshot}s, so that they never need to wait for each other.
+ */
+public class ExecutionGroup {
+
+    public final String name;
+    public final ControllerUpdater updater;
+    private final int priority;
+
+    private Thread thread;
+
+    /**
+     * @param rate The number of ticks per second. The period of each controller in this group is expressed in ticks.
+     * @param priority The priority of the thread of this group, see {@link Thread#setPriority(int)}
+     * @param numWorkerThreads The number of worker threads that the updater of this group can use to update
+     *                         independent controllers in parallel
+     */
+    public ExecutionGroup(String name, double rate, int priority, int numWorkerThreads) {
+        this.name = name;
+        this.updater = new ControllerUpdater((long) (1_000_000_000.0 / rate), numWorkerThreads);
+        this.priority = priority;
+    }
+
+    public ExecutionGroup(String name, double rate, int priority) {
+        this(name, rate, priority, 0);
+    }
+
+    public synchronized void start() {
+        if (thread != null) throw new IllegalStateException("Execution group " + name + " was already started");
+        thread = new Thread(updater::start, name);
+        thread.setDaemon(true);
+        thread.setPriority(priority);
+        thread.start();
+    }
+
+    public void printStatistics(PrintStream output) {
+        output.print(name + ": ");
+        updater.printStatistics(output);
+    }
+}
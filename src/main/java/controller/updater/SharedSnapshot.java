@@ -0,0 +1,34 @@
+package controller.updater;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A lock-free container for the latest value of some data that is produced by 1 execution group and consumed by
+ * others. The values must be immutable, so that readers always see a consistent snapshot. Readers can detect new
+ * values by comparing the reference returned by {@link #get()} with the previous one.
+ */
+public class SharedSnapshot<T> {
+
+    private final AtomicReference<T> value;
+
+    public SharedSnapshot(T initialValue) {
+        this.value = new AtomicReference<>(initialValue);
+    }
+
+    public T get() {
+        return value.get();
+    }
+
+    public void publish(T newValue) {
+        value.set(newValue);
+    }
+
+    /**
+     * Atomically replaces the current value with the result of the given function. The function may be called more
+     * than once when multiple threads update this snapshot at the same time, so it should be free of side effects.
+     */
+    public T update(UnaryOperator<T> function) {
+        return value.updateAndGet(function);
+    }
+}
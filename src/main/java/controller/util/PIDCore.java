@@ -0,0 +1,127 @@
+package controller.util;
+
+/**
+ * Computes the integral and derivative terms of a PID controller, using a ring buffer of the most recent errors. Each
+ * update takes constant time and doesn't allocate memory: the integral is maintained as a running sum, and the
+ * derivative only looks at the last few errors.
+ */
+public class PIDCore {
+
+    private final double[] deltaTimes, errors;
+
+    /**
+     * The part of error * deltaTime that was added to the integral, which is smaller when the integral was saturated
+     */
+    private final double[] contributions;
+    private final int maxHistory;
+    private final int derivativeWindow;
+
+    private int startIndex, size;
+    private double runningIntegral;
+    private int updatesSinceResync;
+
+    private double integralLimit = Double.POSITIVE_INFINITY;
+    private double integral, derivative;
+
+    /**
+     * @param maxHistory The maximum number of past errors that are included in the integral
+     * @param derivativeWindow The derivative is computed from the current error and the error that was inserted
+     *                         this many updates ago
+     */
+    public PIDCore(int maxHistory, int derivativeWindow) {
+        // The current error is stored as well, so we need 1 extra slot
+        this.deltaTimes = new double[maxHistory + 1];
+        this.errors = new double[maxHistory + 1];
+        this.contributions = new double[maxHistory + 1];
+        this.maxHistory = maxHistory;
+        this.derivativeWindow = derivativeWindow;
+    }
+
+    /**
+     * Limits the absolute value of the integral term, to prevent integral windup. While the integral is saturated,
+     * errors that would push it further are not accumulated, so it responds immediately when the error changes sign.
+     * By default, there is no limit.
+     */
+    public void setIntegralLimit(double integralLimit) {
+        this.integralLimit = integralLimit;
+    }
+
+    private int index(int offset) {
+        return (startIndex + offset) % errors.length;
+    }
+
+    /**
+     * Inserts the current error, and computes the new integral and derivative. The integral only includes the errors
+     * from before this update.
+     * @param deltaTime The time since the previous update, in seconds
+     */
+    public void update(double deltaTime, double error) {
+        // Window the error list
+        if (size > maxHistory) {
+            runningIntegral -= contributions[startIndex];
+            startIndex = index(1);
+            size -= 1;
+        }
+
+        double lastError = 0;
+        int lastErrorOffset = Math.max(size - derivativeWindow, 0);
+        if (size > 0) lastError = errors[index(lastErrorOffset)];
+
+        integral = Math.max(-integralLimit, Math.min(integralLimit, runningIntegral));
+
+        int newIndex = index(size);
+        deltaTimes[newIndex] = deltaTime;
+        errors[newIndex] = error;
+        size += 1;
+
+        double contribution = error * deltaTime;
+        if (contribution > 0) contribution = Math.min(contribution, Math.max(0, integralLimit - runningIntegral));
+        else contribution = Math.max(contribution, Math.min(0, -integralLimit - runningIntegral));
+        contributions[newIndex] = contribution;
+        runningIntegral += contribution;
+
+        double timeDiff = 0;
+        for (int offset = lastErrorOffset; offset < size; offset++) {
+            timeDiff += deltaTimes[index(offset)];
+        }
+
+        if (timeDiff > 0) derivative = (error - lastError) / timeDiff;
+        else derivative = 0;
+
+        // Adding and subtracting the same values doesn't always cancel exactly, so recompute the sum once in a while
+        updatesSinceResync += 1;
+        if (updatesSinceResync >= errors.length) resync();
+    }
+
+    private void resync() {
+        runningIntegral = 0;
+        for (int offset = 0; offset < size; offset++) {
+            runningIntegral += contributions[index(offset)];
+        }
+        updatesSinceResync = 0;
+    }
+
+    /**
+     * Forgets all past errors
+     */
+    public void clear() {
+        startIndex = 0;
+        size = 0;
+        runningIntegral = 0;
+        updatesSinceResync = 0;
+    }
+
+    /**
+     * @return The sum of (error * deltaTime) over the past errors, as computed by the last update
+     */
+    public double getIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return The change in error per second, as computed by the last update
+     */
+    public double getDerivative() {
+        return derivative;
+    }
+}
@@ -0,0 +1,215 @@
+package controller.util;
+
+/**
+ * Fits a polynomial through a sliding window of (t, y) samples, using the least squares method. This gives the same
+ * result as {@link Polynomial#fit}, but the sums of the normal equations are maintained incrementally: adding or
+ * removing a sample takes O(degree) time, and solving the normal equations takes O(degree^3) time, regardless of the
+ * number of samples. Apart from growing the sample buffer when needed, this doesn't allocate memory.
+ * <p>
+ * The sums are computed relative to a reference (t, y), and are recomputed from the buffered samples once in a while,
+ * to prevent rounding errors from accumulating, and to keep the reference close to the samples.
+ */
+public class SlidingLeastSquares {
+
+    private final int degree;
+
+    private double[] times, values;
+    private int startIndex, size;
+
+    private double referenceT, referenceY;
+    private int updatesSinceRebase;
+
+    /**
+     * powerSums[k] is the sum of (t - referenceT)^k over all samples
+     */
+    private final double[] powerSums;
+    /**
+     * valueSums[k] is the sum of (y - referenceY) * (t - referenceT)^k over all samples
+     */
+    private final double[] valueSums;
+
+    private final double[][] normalMatrix;
+    private final double[] coefficients;
+    private double fitReferenceT, fitReferenceY;
+    private boolean hasFit;
+
+    /**
+     * @param degree The degree of the fitted polynomial
+     * @param initialCapacity The initial number of samples that fit in the buffer. The buffer will grow when needed.
+     */
+    public SlidingLeastSquares(int degree, int initialCapacity) {
+        this.degree = degree;
+        this.times = new double[Math.max(initialCapacity, 1)];
+        this.values = new double[times.length];
+        this.powerSums = new double[2 * degree + 1];
+        this.valueSums = new double[degree + 1];
+        this.normalMatrix = new double[degree + 1][degree + 2];
+        this.coefficients = new double[degree + 1];
+    }
+
+    private int index(int offset) {
+        return (startIndex + offset) % times.length;
+    }
+
+    private void grow() {
+        double[] newTimes = new double[2 * times.length];
+        double[] newValues = new double[newTimes.length];
+        for (int offset = 0; offset < size; offset++) {
+            newTimes[offset] = times[index(offset)];
+            newValues[offset] = values[index(offset)];
+        }
+        times = newTimes;
+        values = newValues;
+        startIndex = 0;
+    }
+
+    private void accumulate(double t, double y, double sign) {
+        double factor = sign;
+        double relativeT = t - referenceT;
+        double relativeY = y - referenceY;
+        for (int power = 0; power < powerSums.length; power++) {
+            powerSums[power] += factor;
+            if (power < valueSums.length) valueSums[power] += factor * relativeY;
+            factor *= relativeT;
+        }
+    }
+
+    /**
+     * Recomputes all sums from the buffered samples, relative to the oldest sample
+     */
+    private void rebase() {
+        for (int power = 0; power < powerSums.length; power++) powerSums[power] = 0.0;
+        for (int power = 0; power < valueSums.length; power++) valueSums[power] = 0.0;
+        if (size > 0) {
+            referenceT = times[startIndex];
+            referenceY = values[startIndex];
+        }
+        for (int offset = 0; offset < size; offset++) accumulate(times[index(offset)], values[index(offset)], 1.0);
+        updatesSinceRebase = 0;
+    }
+
+    /**
+     * Adds a sample to the (newest end of the) window
+     */
+    public void add(double t, double y) {
+        if (size == times.length) grow();
+        int newIndex = index(size);
+        times[newIndex] = t;
+        values[newIndex] = y;
+        size += 1;
+
+        if (size == 1) rebase();
+        else accumulate(t, y, 1.0);
+
+        updatesSinceRebase += 1;
+        if (updatesSinceRebase >= times.length) rebase();
+    }
+
+    /**
+     * Removes the oldest sample from the window
+     */
+    public void removeOldest() {
+        if (size == 0) throw new IllegalStateException("The window is empty");
+        accumulate(times[startIndex], values[startIndex], -1.0);
+        startIndex = index(1);
+        size -= 1;
+
+        updatesSinceRebase += 1;
+        if (size == 0 || updatesSinceRebase >= times.length) rebase();
+    }
+
+    /**
+     * Removes the oldest samples until the oldest remaining sample was taken at or after minT
+     */
+    public void removeBefore(double minT) {
+        while (size > 0 && times[startIndex] < minT) removeOldest();
+    }
+
+    public void clear() {
+        startIndex = 0;
+        size = 0;
+        rebase();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Solves the normal equations for the current window
+     * @return False when the fit is not unique (e.g. too few distinct times), in which case getValue and getDerivative
+     * will return 0
+     */
+    public boolean fit() {
+        hasFit = false;
+        if (size == 0) return false;
+
+        int numColumns = degree + 1;
+        for (int row = 0; row < numColumns; row++) {
+            for (int column = 0; column < numColumns; column++) normalMatrix[row][column] = powerSums[row + column];
+            normalMatrix[row][numColumns] = valueSums[row];
+        }
+
+        // Gaussian elimination with partial pivoting
+        for (int pivot = 0; pivot < numColumns; pivot++) {
+            int bestRow = pivot;
+            for (int row = pivot + 1; row < numColumns; row++) {
+                if (Math.abs(normalMatrix[row][pivot]) > Math.abs(normalMatrix[bestRow][pivot])) bestRow = row;
+            }
+            double[] swap = normalMatrix[pivot];
+            normalMatrix[pivot] = normalMatrix[bestRow];
+            normalMatrix[bestRow] = swap;
+
+            // Treat the pivot as 0 when it is negligible compared to the original values in its column: this
+            // happens when the samples don't have enough distinct times for this degree
+            double columnScale = 0.0;
+            for (int row = 0; row < numColumns; row++) {
+                columnScale = Math.max(columnScale, Math.abs(powerSums[row + pivot]));
+            }
+            double pivotValue = normalMatrix[pivot][pivot];
+            if (Math.abs(pivotValue) <= 1e-12 * columnScale || pivotValue == 0.0) return false;
+
+            for (int row = pivot + 1; row < numColumns; row++) {
+                double factor = normalMatrix[row][pivot] / pivotValue;
+                if (factor == 0.0) continue;
+                for (int column = pivot; column <= numColumns; column++) {
+                    normalMatrix[row][column] -= factor * normalMatrix[pivot][column];
+                }
+            }
+        }
+
+        for (int row = degree; row >= 0; row--) {
+            double result = normalMatrix[row][numColumns];
+            for (int column = row + 1; column < numColumns; column++) {
+                result -= normalMatrix[row][column] * coefficients[column];
+            }
+            coefficients[row] = result / normalMatrix[row][row];
+        }
+        fitReferenceT = referenceT;
+        fitReferenceY = referenceY;
+        hasFit = true;
+        return true;
+    }
+
+    /**
+     * @return The value of the last fitted polynomial at time t, or 0 when the last fit failed
+     */
+    public double getValue(double t) {
+        if (!hasFit) return 0.0;
+        double relativeT = t - fitReferenceT;
+        double result = 0.0;
+        for (int power = degree; power >= 0; power--) result = result * relativeT + coefficients[power];
+        return result + fitReferenceY;
+    }
+
+    /**
+     * @return The derivative of the last fitted polynomial at time t, or 0 when the last fit failed
+     */
+    public double getDerivative(double t) {
+        if (!hasFit) return 0.0;
+        double relativeT = t - fitReferenceT;
+        double result = 0.0;
+        for (int power = degree; power >= 1; power--) result = result * relativeT + power * coefficients[power];
+        return result;
+    }
+}
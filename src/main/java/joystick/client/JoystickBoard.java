@@ -47,8 +47,8 @@ public class JoystickBoard extends JPanel implements KeyListener, MouseListener,
 
     @Override
     public void paint(Graphics graphics) {
-        var leftWheelEncoder = duckieState.leftWheelEncoder;
-        var rightWheelEncoder = duckieState.rightWheelEncoder;
+        var leftWheelEncoder = duckieState.leftWheelEncoder.get();
+        var rightWheelEncoder = duckieState.rightWheelEncoder.get();
         int deltaLeft = 0;
         int deltaRight = 0;
         if (leftWheelEncoder != null && rightWheelEncoder != null && lastLeftEncoder != null && lastRightEncoder != null) {
@@ -48,10 +48,14 @@ public class JoystickClientConnection {
                     boolean didSomething = false;
                     while (input.available() > 0) {
                         byte type = input.readByte();
-                        if (type == 1) duckieState.leftWheelEncoder = new DuckieState.WheelEncoderEntry(input.readLong(), input.readInt());
-                        else if (type == 2) leftMotorConsumer.accept(input.readFloat());
-                        else if (type == 3) duckieState.rightWheelEncoder = new DuckieState.WheelEncoderEntry(input.readLong(), input.readInt());
-                        else if (type == 4) rightMotorConsumer.accept(input.readFloat());
+                        if (type == 1) {
+                            duckieState.leftWheelEncoder.write(input.readLong(), input.readInt());
+                            duckieState.notifyEncoderListeners();
+                        } else if (type == 2) leftMotorConsumer.accept(input.readFloat());
+                        else if (type == 3) {
+                            duckieState.rightWheelEncoder.write(input.readLong(), input.readInt());
+                            duckieState.notifyEncoderListeners();
+                        } else if (type == 4) rightMotorConsumer.accept(input.readFloat());
                         else if (type == 5) {
                             int numWalls = input.readInt();
                             var walls = new ArrayList<RelativeWall>(numWalls);
@@ -3,10 +3,12 @@ package planner;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.concurrent.BlockingQueue;
+import java.util.random.RandomGenerator;
 
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 import controller.updater.ControllerFunction;
 import planner.MazePlanner.Cell.WallFlag;
 
@@ -15,12 +17,14 @@ import static controller.util.DuckieBot.GRID_SIZE;
 public class MazePlanner implements ControllerFunction  {
     private final BlockingQueue<GridPosition> highLevelRoute;
     private final DuckieEstimations estimations;
+    private final RandomGenerator random;
     private final int MAX_X = 100;
     private final int MAX_Y = 100;
     private final int X_OFFSET = 50;
     private final int Y_OFFSET = 50;
     private Cell[][] cellMap = new Cell[MAX_X][MAX_Y];
     private Cell currentCell;
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
 
     private List<GridPosition> plannedRoutes = new ArrayList<>();
 
@@ -62,6 +66,9 @@ public class MazePlanner implements ControllerFunction  {
 
     private WallFlag lastDirection = WallFlag.Right;
 
+    // The version of the estimated walls that has been added to the cell map
+    private long wallVersion = 0;
+
     public class Cell{
         enum WallFlag{
             Up,
@@ -111,8 +118,20 @@ public class MazePlanner implements ControllerFunction  {
       }
       
     public MazePlanner(BlockingQueue<GridPosition> highLevelRoute, DuckieEstimations estimations) {
+        this(highLevelRoute, estimations, new SplittableRandom());
+    }
+
+    /**
+     * @param random Decides which direction to take when there are multiple options. Simulations should pass a
+     *               generator that is split from the random number generator of the simulation, to make them
+     *               repeatable.
+     */
+    public MazePlanner(
+            BlockingQueue<GridPosition> highLevelRoute, DuckieEstimations estimations, RandomGenerator random
+    ) {
         this.highLevelRoute = highLevelRoute;
         this.estimations = estimations;
+        this.random = random;
         this.currentCell = new Cell(X_OFFSET, Y_OFFSET, 0);
         estimations.cells = this.cellMap;
 
@@ -127,10 +146,11 @@ public class MazePlanner implements ControllerFunction  {
     @Override
     public void update(double deltaTime) {
         // Get the position
+        estimations.pose.read(pose);
         prevRealX = realX;
         prevRealY = realY;
-        realX = (int)Math.floor(estimations.x / GRID_SIZE) + X_OFFSET;
-        realY = (int)Math.floor(estimations.y / GRID_SIZE) + Y_OFFSET;
+        realX = (int)Math.floor(pose.x / GRID_SIZE) + X_OFFSET;
+        realY = (int)Math.floor(pose.y / GRID_SIZE) + Y_OFFSET;
 
         if(planAhead){
             previousX = realX;
@@ -172,8 +192,8 @@ public class MazePlanner implements ControllerFunction  {
                 break;
             case Explore:
                 // If we are in a new cell, mark it only if we are certain percentage in the cell (1.0 = 100% in the center, 0% is from the edge)
-                var inRatioX = Math.abs((Math.abs(estimations.x + GRID_SIZE*0.5) % GRID_SIZE)/GRID_SIZE - 0.5) * 2;
-                var inRatioY = Math.abs((Math.abs(estimations.y + GRID_SIZE*0.5) % GRID_SIZE)/GRID_SIZE - 0.5) * 2;
+                var inRatioX = Math.abs((Math.abs(pose.x + GRID_SIZE*0.5) % GRID_SIZE)/GRID_SIZE - 0.5) * 2;
+                var inRatioY = Math.abs((Math.abs(pose.y + GRID_SIZE*0.5) % GRID_SIZE)/GRID_SIZE - 0.5) * 2;
                 // Also mark when planning ahead
                 if(newCell && (inRatioX > visitedCellRatio) && (inRatioY > visitedCellRatio)){
                     System.out.println("New cell at " + realX + ", " + realY);
@@ -234,8 +254,7 @@ public class MazePlanner implements ControllerFunction  {
                     for (WallFlag flag : possibleDirections) {
                         dirList.add(flag);
                     }
-                    Random rand = new Random();
-                    var pick = rand.nextInt(possibleDirections.size());
+                    var pick = random.nextInt(possibleDirections.size());
                     var direction1 = dirList.get(pick);
                     var direction2 = dirList.get((pick+1)%possibleDirections.size());
                     
@@ -293,44 +312,42 @@ public class MazePlanner implements ControllerFunction  {
         }
     }
 
+    /**
+     * Applies the walls that were added to or removed from the estimated walls since the previous call to the cell map
+     */
     void updateWalls(){
-        var walls = estimations.walls.copyWalls();
-        for(var wall : walls)
-        {
-            // Local coordinates
-            var localX = wall.gridX() + X_OFFSET;
-            var localY = wall.gridY() + Y_OFFSET;
-
-            // Position the walls in the grid
-            switch(wall.axis()){
-                case Y:
-                    // If we detect a left wall at the current cell
-                    if(!cellMap[localX][localY].walls.contains(Cell.WallFlag.Left)){
-                        System.out.println("Left Wall at " + wall.gridX() + ", " + wall.gridY());
-                        cellMap[localX][localY].walls.add(Cell.WallFlag.Left);
-                    }
-                    // The we have a right wall at the cell to the left
-                    if(!cellMap[localX - 1][localY].walls.contains(Cell.WallFlag.Right)){
-                        System.out.println("Right Wall at " + (wall.gridX() - 1) + ", " + wall.gridY());
-                        cellMap[localX - 1][localY].walls.add(Cell.WallFlag.Right);
-                    }
-                    break;
-                case X:
-                    // If we detect a bottom wall at the current cell
-                    if(!cellMap[localX][localY].walls.contains(Cell.WallFlag.Down)){
-                        System.out.println("Bottom Wall at " + wall.gridX() + ", " + wall.gridY());
-                        cellMap[localX][localY].walls.add(Cell.WallFlag.Down);
-                    }
-                    // The we have a top wall at the cell below
-                    if(!cellMap[localX][localY - 1].walls.contains(Cell.WallFlag.Up)){
-                        System.out.println("Up Wall at " +  wall.gridX()+ ", " +  (wall.gridY() - 1));
-                        cellMap[localX][localY - 1].walls.add(Cell.WallFlag.Up);
-                    }
-                    break;
-            }
+        var walls = estimations.walls.snapshot();
+        walls.forEachChangeSince(wallVersion, wall -> setWall(wall, true), wall -> setWall(wall, false));
+        wallVersion = walls.version();
+    }
+
+    private void setWall(GridWall wall, boolean present){
+        // Local coordinates
+        var localX = wall.gridX() + X_OFFSET;
+        var localY = wall.gridY() + Y_OFFSET;
+
+        // Position the walls in the grid
+        switch(wall.axis()){
+            case Y:
+                // If we detect a left wall at the current cell
+                setWallFlag(cellMap[localX][localY], Cell.WallFlag.Left, present);
+                // The we have a right wall at the cell to the left
+                setWallFlag(cellMap[localX - 1][localY], Cell.WallFlag.Right, present);
+                break;
+            case X:
+                // If we detect a bottom wall at the current cell
+                setWallFlag(cellMap[localX][localY], Cell.WallFlag.Down, present);
+                // The we have a top wall at the cell below
+                setWallFlag(cellMap[localX][localY - 1], Cell.WallFlag.Up, present);
+                break;
         }
     }
 
+    private void setWallFlag(Cell cell, WallFlag flag, boolean present){
+        if(present) cell.walls.add(flag);
+        else cell.walls.remove(flag);
+    }
+
     public void explore(){        
         Cell.WallFlag newDirection = WallFlag.Up;  // Up is just a placeholder
 
@@ -376,8 +393,7 @@ public class MazePlanner implements ControllerFunction  {
                 newDirection = Cell.WallFlag.Down;
             } else {
                 // Pick a random direction
-                Random rand = new Random();
-                newDirection = possibleDirections.get(rand.nextInt(possibleDirections.size()));
+                newDirection = possibleDirections.get(random.nextInt(possibleDirections.size()));
             }
         }
          else if (currentCell.walls.size() == 3){
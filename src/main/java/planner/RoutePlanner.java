@@ -1,6 +1,7 @@
 package planner;
 
 import controller.desired.DesiredPose;
+import controller.updater.ControllerFunction;
 
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
@@ -9,7 +10,7 @@ import static controller.desired.DesiredPose.STATUS_CANCELLED;
 import static controller.desired.DesiredPose.STATUS_UNREAD;
 import static controller.util.DuckieBot.GRID_SIZE;
 
-public class RoutePlanner {
+public class RoutePlanner implements ControllerFunction {
 
     public static int simpleSin(double angle) {
         if (angle == 0.0 || angle == 0.5) return 0;
@@ -147,37 +148,54 @@ public class RoutePlanner {
         currentGridPose = newPose;
     }
 
+    /**
+     * Processes the high-level route positions as they arrive, on the calling thread. This never returns.
+     */
     public void start() {
         try {
             //noinspection InfiniteLoopStatement
-            while (true) {
-                var nextPosition = highLevelRoute.take();
-                int dx = nextPosition.x() - currentGridPose.x;
-                int dy = nextPosition.y() - currentGridPose.y;
-                if (dx == 0 && dy == 0) System.err.println("Useless command");
-                if (dx != 0 && dy != 0) System.err.println("Ambiguous command");
-                while (dx > 0) {
-                    processSingleGridStep(0.0);
-                    dx--;
-                }
-                while (dx < 0) {
-                    processSingleGridStep(0.5);
-                    dx++;
-                }
-                while (dy > 0) {
-                    processSingleGridStep(0.25);
-                    dy--;
-                }
-                while (dy < 0) {
-                    processSingleGridStep(0.75);
-                    dy++;
-                }
-            }
+            while (true) process(highLevelRoute.take());
         } catch (InterruptedException shouldNotHappen) {
             throw new RuntimeException(shouldNotHappen);
         }
     }
 
+    /**
+     * Processes the high-level route positions that have arrived, without waiting for new ones. This can be used
+     * instead of start() when the route planner should not get its own thread, for instance in headless simulations.
+     */
+    @Override
+    public void update(double deltaTime) {
+        var nextPosition = highLevelRoute.poll();
+        while (nextPosition != null) {
+            process(nextPosition);
+            nextPosition = highLevelRoute.poll();
+        }
+    }
+
+    private void process(GridPosition nextPosition) {
+        int dx = nextPosition.x() - currentGridPose.x;
+        int dy = nextPosition.y() - currentGridPose.y;
+        if (dx == 0 && dy == 0) System.err.println("Useless command");
+        if (dx != 0 && dy != 0) System.err.println("Ambiguous command");
+        while (dx > 0) {
+            processSingleGridStep(0.0);
+            dx--;
+        }
+        while (dx < 0) {
+            processSingleGridStep(0.5);
+            dx++;
+        }
+        while (dy > 0) {
+            processSingleGridStep(0.25);
+            dy--;
+        }
+        while (dy < 0) {
+            processSingleGridStep(0.75);
+            dy++;
+        }
+    }
+
     private record GridPose(int x, int y, double angle) {
 
         @Override
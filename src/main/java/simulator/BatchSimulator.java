@@ -0,0 +1,237 @@
+package simulator;
+
+import camera.WallSnapper;
+import planner.GridWall;
+import state.DuckiePose;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static controller.util.DuckieBot.*;
+import static java.lang.Math.*;
+
+/**
+ * Simulates many duckiebots at once, with a fixed step time. Unlike the Simulator, which stores the state of 1
+ * duckiebot in (volatile) object fields, this class stores the state of all duckiebots in primitive arrays, with 1
+ * element per duckiebot (a structure of arrays). Each step updates all duckiebots in a few simple loops over these
+ * arrays, which the JIT compiler can unroll, and partly vectorize.
+ * <p>
+ * The duckiebots don't interact, and they all drive in the same maze, which is read from a WallGrid that is shared
+ * with other batches, and must not be modified while it is used. The latencies are rounded to a whole number of
+ * steps. Without latency, duckiebot i moves exactly like a Simulator with the same seed, terrain, and motor signals
+ * (apart from the camera, which this class doesn't simulate). With latency, it can differ a little, since the
+ * Simulator measures time in seconds, so its delayed values sometimes become visible 1 step earlier or later.
+ * <p>
+ * This class is not thread-safe, but different batches can be stepped by different threads.
+ */
+public final class BatchSimulator {
+
+    /**
+     * The configuration of 1 duckiebot in the batch
+     * @param controlLatency The latency of the motor signals, in seconds
+     * @param tickLatency The latency of the wheel encoders, in seconds
+     * @param slipChance The chance that a wheel slips during a step
+     * @param seed The seed of the random number generator of this duckiebot, which is split in the same way as that of
+     *             the Simulator
+     */
+    public record Robot(Terrain terrain, double controlLatency, double tickLatency, double slipChance, long seed) {}
+
+    public final int size;
+
+    /**
+     * The duration of 1 step, in seconds
+     */
+    public final double stepTime;
+
+    /**
+     * The method that is used to integrate the poses
+     */
+    public Integrator integrator = Integrator.EULER;
+
+    /**
+     * The motor signals of each duckiebot, which should be written by the caller before each step
+     */
+    public final double[] leftControl, rightControl;
+
+    /**
+     * The real pose of each duckiebot: the position in meters, and the angle in turns
+     */
+    public final double[] x, y, angle;
+
+    /**
+     * The wheel encoder values of each duckiebot, which are delayed by the tick latency
+     */
+    public final int[] leftTicks, rightTicks;
+
+    private final double[] velocityX, velocityY;
+    private final double[] moveState = new double[Integrator.STATE_SIZE];
+    private final double[] leftSpeed, rightSpeed, leftTickSpeed, rightTickSpeed;
+    private final double[] exactLeftTicks, exactRightTicks;
+
+    private final Terrain[] terrains;
+    private final double[] slipChances;
+    private final SplittableRandom[] slipRandoms, terrainRandoms;
+
+    /**
+     * The delays (in steps) of the motor signals and the encoder values of each duckiebot
+     */
+    private final int[] controlDelays, tickDelays;
+
+    /**
+     * Circular buffers of the last historyLength motor signals and encoder values. The value of duckiebot i at step s
+     * is at index (s % historyLength) * size + i.
+     */
+    private final int historyLength;
+    private final double[] leftControlHistory, rightControlHistory;
+    private final int[] leftTickHistory, rightTickHistory;
+
+    private final WallGrid walls;
+    private long stepIndex;
+
+    /**
+     * @param stepTime The duration of 1 step, in seconds. Steps of 10 to 20 milliseconds can be used when the
+     *                 integrator is EXACT_ARC or RK4.
+     * @param walls The maze in which all duckiebots drive. This is only used by findVisibleWalls.
+     */
+    public BatchSimulator(List<Robot> robots, double stepTime, WallGrid walls) {
+        if (!(stepTime > 0.0)) throw new IllegalArgumentException("stepTime must be positive, but is " + stepTime);
+        this.size = robots.size();
+        this.stepTime = stepTime;
+        this.walls = walls;
+
+        leftControl = new double[size];
+        rightControl = new double[size];
+        x = new double[size];
+        y = new double[size];
+        angle = new double[size];
+        leftTicks = new int[size];
+        rightTicks = new int[size];
+        velocityX = new double[size];
+        velocityY = new double[size];
+        leftSpeed = new double[size];
+        rightSpeed = new double[size];
+        leftTickSpeed = new double[size];
+        rightTickSpeed = new double[size];
+        exactLeftTicks = new double[size];
+        exactRightTicks = new double[size];
+
+        terrains = new Terrain[size];
+        slipChances = new double[size];
+        slipRandoms = new SplittableRandom[size];
+        terrainRandoms = new SplittableRandom[size];
+        controlDelays = new int[size];
+        tickDelays = new int[size];
+
+        int maxDelay = 0;
+        for (int index = 0; index < size; index++) {
+            var robot = robots.get(index);
+            terrains[index] = robot.terrain;
+            slipChances[index] = robot.slipChance;
+
+            // Split in the same order as the Simulator, so that duckiebots with the same seed get the same randomness
+            var random = new SplittableRandom(robot.seed);
+            slipRandoms[index] = random.split();
+            terrainRandoms[index] = random.split();
+
+            controlDelays[index] = (int) round(robot.controlLatency / stepTime);
+            tickDelays[index] = (int) round(robot.tickLatency / stepTime);
+            maxDelay = max(maxDelay, max(controlDelays[index], tickDelays[index]));
+
+            x[index] = DuckiePose.START_X;
+            y[index] = DuckiePose.START_Y;
+        }
+
+        historyLength = maxDelay + 1;
+        leftControlHistory = new double[historyLength * size];
+        rightControlHistory = new double[historyLength * size];
+        leftTickHistory = new int[historyLength * size];
+        rightTickHistory = new int[historyLength * size];
+    }
+
+    /**
+     * Uses the testing maze of the Simulator
+     */
+    public BatchSimulator(List<Robot> robots, double stepTime) {
+        this(robots, stepTime, SimulatorMaze.createTestingWallGrid5x5());
+    }
+
+    /**
+     * @return The simulation time, in nanoseconds
+     */
+    public long nanoTime() {
+        return round(stepIndex * stepTime * 1_000_000_000.0);
+    }
+
+    /**
+     * @return The offset in the history buffers of the value that was written delay steps ago. When nothing was
+     * written at that step, this points to a part of the buffer that hasn't been written yet, and therefore contains
+     * the initial value 0.
+     */
+    private int historyOffset(int delay) {
+        return floorMod(stepIndex - delay, historyLength) * size;
+    }
+
+    /**
+     * Simulates all duckiebots for 1 step
+     */
+    public void step() {
+        stepIndex += 1;
+        int writeOffset = historyOffset(0);
+
+        // The terrains and the random number generators are objects, so this loop can't be vectorized
+        System.arraycopy(leftControl, 0, leftControlHistory, writeOffset, size);
+        System.arraycopy(rightControl, 0, rightControlHistory, writeOffset, size);
+        for (int index = 0; index < size; index++) {
+            int readIndex = historyOffset(controlDelays[index]) + index;
+            double leftThrottle = max(-1.0, min(1.0, leftControlHistory[readIndex]));
+            double rightThrottle = max(-1.0, min(1.0, rightControlHistory[readIndex]));
+            leftSpeed[index] = terrains[index].leftSpeedFunction.apply(leftThrottle, terrainRandoms[index]);
+            rightSpeed[index] = terrains[index].rightSpeedFunction.apply(rightThrottle, terrainRandoms[index]);
+
+            boolean leftSlips = slipRandoms[index].nextDouble() < slipChances[index];
+            boolean rightSlips = slipRandoms[index].nextDouble() < slipChances[index];
+            leftTickSpeed[index] = leftSlips ? 0.0 : leftSpeed[index];
+            rightTickSpeed[index] = rightSlips ? 0.0 : rightSpeed[index];
+        }
+
+        // The integrator of the Simulator is used, so that the duckiebots move exactly like in the Simulator
+        for (int index = 0; index < size; index++) {
+            moveState[Integrator.X] = x[index];
+            moveState[Integrator.Y] = y[index];
+            moveState[Integrator.ANGLE] = angle[index];
+            moveState[Integrator.VELOCITY_X] = velocityX[index];
+            moveState[Integrator.VELOCITY_Y] = velocityY[index];
+            integrator.move(moveState, stepTime, leftSpeed[index], rightSpeed[index]);
+            x[index] = moveState[Integrator.X];
+            y[index] = moveState[Integrator.Y];
+            angle[index] = moveState[Integrator.ANGLE];
+            velocityX[index] = moveState[Integrator.VELOCITY_X];
+            velocityY[index] = moveState[Integrator.VELOCITY_Y];
+        }
+
+        double ticksPerStep = WHEEL_TICKS_PER_TURN * stepTime;
+        double wheelCircumference = 2 * PI * WHEEL_RADIUS;
+        for (int index = 0; index < size; index++) {
+            exactLeftTicks[index] += ticksPerStep * leftTickSpeed[index] / wheelCircumference;
+            exactRightTicks[index] += ticksPerStep * rightTickSpeed[index] / wheelCircumference;
+            leftTickHistory[writeOffset + index] = (int) exactLeftTicks[index];
+            rightTickHistory[writeOffset + index] = (int) exactRightTicks[index];
+        }
+        for (int index = 0; index < size; index++) {
+            int readIndex = historyOffset(tickDelays[index]) + index;
+            leftTicks[index] = leftTickHistory[readIndex];
+            rightTicks[index] = rightTickHistory[readIndex];
+        }
+    }
+
+    /**
+     * @return The walls that the camera of the given duckiebot can see, without noise
+     */
+    public Set<GridWall> findVisibleWalls(int index) {
+        double angleRadians = angle[index] * 2 * PI;
+        return walls.findVisibleWalls(new WallSnapper.FixedPose(
+                x[index] + CAMERA_OFFSET * cos(angleRadians), y[index] + CAMERA_OFFSET * sin(angleRadians), angle[index]
+        ));
+    }
+}
@@ -0,0 +1,50 @@
+package simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Delays double values by a (possibly jittered) latency, without boxing, and without scanning all pending values.
+ * Each get returns the last value whose latency has passed, or the default value if there is none.
+ */
+public class DoubleLatencyLine extends LatencyLine {
+
+    private double[] values = new double[capacity()];
+    private double visibleValue;
+
+    public DoubleLatencyLine(double latency, double defaultValue) {
+        this(() -> latency, defaultValue);
+    }
+
+    /**
+     * @param latency Samples the latency (in seconds) of each value when it is inserted
+     * @param defaultValue The value that get() returns before any inserted value is visible
+     */
+    public DoubleLatencyLine(DoubleSupplier latency, double defaultValue) {
+        super(latency);
+        this.visibleValue = defaultValue;
+    }
+
+    public void insert(double currentTime, double value) {
+        // This must be a separate statement, since insertSlot may replace the values array
+        int index = insertSlot(currentTime);
+        values[index] = value;
+    }
+
+    /**
+     * @return The most recently inserted value that is visible at the given time, or the default value if none of
+     * them is visible yet. The time must not decrease between calls.
+     */
+    public double get(double currentTime) {
+        int index = pollVisible(currentTime);
+        while (index != -1) {
+            visibleValue = values[index];
+            index = pollVisible(currentTime);
+        }
+        return visibleValue;
+    }
+
+    @Override
+    void grow(int newCapacity) {
+        values = unwrap(values, startIndex, size, newCapacity);
+    }
+}
@@ -0,0 +1,173 @@
+package simulator;
+
+import camera.WallMapper;
+import controller.BezierController;
+import controller.DifferentialDriver;
+import controller.DirectSpeedPIDController;
+import controller.desired.DesiredPose;
+import controller.desired.DesiredVelocity;
+import controller.desired.DesiredWheelSpeed;
+import controller.estimation.PoseEstimator;
+import controller.estimation.SpeedEstimator;
+import controller.parameters.DuckieParameters;
+import controller.updater.ControllerUpdater;
+import planner.GridPosition;
+import planner.MazePlanner;
+import planner.RoutePlanner;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs the simulator and the controller stack of the automatic planner mode (or a fixed route) on the calling thread,
+ * in virtual time:
+ * the controllers are updated at the same rates as in the SimulatorUI (1000 times per second for the motor
+ * controllers, and 100 times per second for perception and planning), but without waiting. The virtual time of the
+ * updaters matches the simulation time of the simulator, which is the clock of all simulated sensors, so the result
+ * doesn't depend on the speed of the machine.
+ * <p>
+ * A simulated minute takes between 0.5 and 3 seconds, depending on the machine, so this is only 20 to 100 times
+ * faster than real time. Each 1 millisecond step still allocates about 300 bytes, mostly in the BezierController
+ * (which creates a new BezierCurve in every update) and in the LinkedList and boxed values of the MedianFilters of
+ * the DifferentialDriver.
+ */
+public class HeadlessSimulation {
+
+    private static final long MOTOR_TICK = 1_000_000;
+    private static final long SLOW_TICK = 10_000_000;
+
+    public final Simulator simulator;
+    public final DuckieParameters parameters;
+    public final DesiredVelocity desiredVelocity = new DesiredVelocity();
+
+    private final ControllerUpdater motorUpdater = new ControllerUpdater(MOTOR_TICK, 0);
+    private final ControllerUpdater perceptionUpdater = new ControllerUpdater(SLOW_TICK, 0);
+    private final ControllerUpdater planningUpdater = new ControllerUpdater(SLOW_TICK, 0);
+
+    private final Queue<DesiredPose> lowLevelRoute = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<GridPosition> highLevelRoute = new LinkedBlockingQueue<>();
+
+    /**
+     * The current virtual time, in nanoseconds
+     */
+    private long time;
+
+    /**
+     * Simulates an ideal duckiebot: no latency, no slip, and no camera noise
+     */
+    public HeadlessSimulation(Terrain terrain, DuckieParameters parameters, long seed) {
+        this(terrain, 0.0, 0.0, 0.0, 0.0, parameters, seed, null);
+    }
+
+    /**
+     * @param controlLatency The latency of the motor controls, in seconds
+     * @param tickLatency The latency of the wheel encoders, in seconds
+     * @param slipChance The chance that a wheel slips during a simulator update
+     * @param maxCameraNoise The maximum relative noise of the camera
+     * @param seed The seed of the random number generator of the simulation, which is split between the simulator and
+     *             the MazePlanner, so that simulations with the same seed are identical
+     * @param route The grid positions that the duckiebot should drive to, or null to let the MazePlanner explore the
+     *              maze
+     */
+    public HeadlessSimulation(
+            Terrain terrain, double controlLatency, double tickLatency, double slipChance, double maxCameraNoise,
+            DuckieParameters parameters, long seed, List<GridPosition> route
+    ) {
+        var random = new SplittableRandom(seed);
+        this.simulator = new Simulator(
+                terrain, controlLatency, controlLatency, tickLatency, tickLatency,
+                100, slipChance, slipChance, maxCameraNoise, random.split()
+        );
+        this.parameters = parameters;
+
+        var estimations = simulator.estimations;
+        var trackedState = simulator.trackedState;
+        var desiredWheelSpeed = new DesiredWheelSpeed();
+
+        var poseEstimator = new PoseEstimator(trackedState, estimations);
+        trackedState.addEncoderListener(() -> poseEstimator.update(0.0));
+
+        motorUpdater.addController(simulator, 1);
+        motorUpdater.addController(new BezierController(lowLevelRoute, desiredVelocity, estimations), 1);
+        motorUpdater.addController(new DirectSpeedPIDController(
+                desiredVelocity, desiredWheelSpeed, estimations, parameters.speedPID
+        ), 1);
+        motorUpdater.addController(new DifferentialDriver(
+                desiredVelocity, desiredWheelSpeed, estimations, simulator.controls, parameters.anglePID
+        ), 1);
+        motorUpdater.addController(new SpeedEstimator(
+                trackedState.leftWheelEncoder, newSpeed -> estimations.leftSpeed = newSpeed, simulator::nanoTime
+        ), 1);
+        motorUpdater.addController(new SpeedEstimator(
+                trackedState.rightWheelEncoder, newSpeed -> estimations.rightSpeed = newSpeed, simulator::nanoTime
+        ), 1);
+
+        perceptionUpdater.addController(new WallMapper(estimations, trackedState, 0.02, 0.0), 1);
+
+        if (route == null) planningUpdater.addController(new MazePlanner(highLevelRoute, estimations, random.split()), 1);
+        else highLevelRoute.addAll(route);
+        planningUpdater.addController(new RoutePlanner(highLevelRoute, lowLevelRoute), 1);
+    }
+
+    /**
+     * @return True when the duckiebot has no more positions to drive to. The duckiebot may still be driving to the
+     * last position. When the MazePlanner is used, this may become false again later.
+     */
+    public boolean isRouteFinished() {
+        return highLevelRoute.isEmpty() && lowLevelRoute.isEmpty();
+    }
+
+    /**
+     * @return The current virtual time, in seconds
+     */
+    public double getTime() {
+        return time / 1_000_000_000.0;
+    }
+
+    /**
+     * Simulates the given number of (virtual) seconds
+     */
+    public void run(double seconds) {
+        long endTime = time + (long) (seconds * 1_000_000_000.0);
+        while (time + MOTOR_TICK <= endTime) {
+            time += MOTOR_TICK;
+            motorUpdater.advanceTo(time);
+            perceptionUpdater.advanceTo(time);
+            planningUpdater.advanceTo(time);
+        }
+    }
+
+    /**
+     * @return The updaters of the motor, perception, and planning controllers, whose statistics show how long each
+     * controller took (in real time)
+     */
+    public List<ControllerUpdater> getUpdaters() {
+        return List.of(motorUpdater, perceptionUpdater, planningUpdater);
+    }
+
+    /**
+     * Runs an automatic planner mission of the given number of (virtual) seconds, which is 60 by default, and prints
+     * how much faster than real time it was
+     */
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 60.0;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1234L;
+
+        var simulation = new HeadlessSimulation(Terrain.IDEAL, new DuckieParameters(), seed);
+        long startTime = System.nanoTime();
+        simulation.run(seconds);
+        double realTime = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        var realPose = simulation.simulator.realPose;
+        System.out.printf(
+                "Simulated %.1f seconds in %.2f seconds (%.0fx real time), final position (%.2f, %.2f), %d walls mapped%n",
+                simulation.getTime(), realTime, simulation.getTime() / realTime, realPose.x, realPose.y,
+                simulation.simulator.estimations.walls.snapshot().size()
+        );
+        for (var updater : simulation.getUpdaters()) updater.printStatistics(System.out);
+    }
+}
@@ -0,0 +1,83 @@
+package simulator;
+
+import static controller.util.DuckieBot.DISTANCE_BETWEEN_WHEELS;
+import static java.lang.Math.*;
+
+/**
+ * The methods that the Simulator can use to integrate the pose of the duckiebot. During each (sub-)step, the speeds of
+ * the wheels are constant.
+ */
+public enum Integrator {
+
+    /**
+     * Moves the duckiebot in a straight line, with the velocity of the previous step, and then turns it. This needs
+     * small steps (like 1 millisecond) to be accurate.
+     */
+    EULER,
+
+    /**
+     * Moves the duckiebot along the circular arc that a differential drive follows when the speeds of its wheels are
+     * constant. This is exact for any step size.
+     */
+    EXACT_ARC,
+
+    /**
+     * The classic 4th-order Runge-Kutta method. Its error shrinks with the 4th power of the step size, so steps of 10
+     * to 20 milliseconds are about as accurate as 1 millisecond steps with EULER.
+     */
+    RK4;
+
+    /**
+     * The indices of the pose in the state array of move: the position in meters, the angle in turns, and the velocity
+     * in meters per second
+     */
+    public static final int X = 0, Y = 1, ANGLE = 2, VELOCITY_X = 3, VELOCITY_Y = 4, STATE_SIZE = 5;
+
+    /**
+     * Moves 1 duckiebot during 1 (sub-)step. Both the Simulator and the BatchSimulator use this method, so that they
+     * move in exactly the same way.
+     * @param state The pose of the duckiebot (see STATE_SIZE), which is updated in place
+     * @param deltaTime The duration of the step, in seconds
+     * @param leftSpeed The speed of the left wheel, in meters per second
+     * @param rightSpeed The speed of the right wheel, in meters per second
+     */
+    public void move(double[] state, double deltaTime, double leftSpeed, double rightSpeed) {
+        double averageSpeed = 0.5 * (leftSpeed + rightSpeed);
+        if (this == EULER) {
+            state[X] += deltaTime * state[VELOCITY_X];
+            state[Y] += deltaTime * state[VELOCITY_Y];
+
+            double angleRadians = state[ANGLE] * 2 * PI; // Convert turns to radians
+            state[VELOCITY_X] = averageSpeed * cos(angleRadians);
+            state[VELOCITY_Y] = averageSpeed * sin(angleRadians);
+
+            state[ANGLE] += deltaTime * (rightSpeed - leftSpeed) / (2 * PI * DISTANCE_BETWEEN_WHEELS);
+            if (state[ANGLE] >= 1) state[ANGLE] -= 1;
+            if (state[ANGLE] < 0) state[ANGLE] += 1;
+            return;
+        }
+
+        double startAngle = state[ANGLE] * 2 * PI;
+        double deltaAngle = deltaTime * (rightSpeed - leftSpeed) / DISTANCE_BETWEEN_WHEELS; // In radians
+        double endAngle = startAngle + deltaAngle;
+        if (this == EXACT_ARC) {
+            // The chord of the arc points halfway between the start angle and the end angle
+            double halfAngle = 0.5 * deltaAngle;
+            double chordFactor = abs(halfAngle) < 1e-4 ? 1.0 - halfAngle * halfAngle / 6.0 : sin(halfAngle) / halfAngle;
+            double chordLength = averageSpeed * deltaTime * chordFactor;
+            state[X] += chordLength * cos(startAngle + halfAngle);
+            state[Y] += chordLength * sin(startAngle + halfAngle);
+        } else {
+            // Since the angle grows linearly during the step, the 2 middle stages of RK4 are equal, and the position
+            // update reduces to Simpson's rule
+            double middleAngle = startAngle + 0.5 * deltaAngle;
+            state[X] += deltaTime * averageSpeed * (cos(startAngle) + 4 * cos(middleAngle) + cos(endAngle)) / 6;
+            state[Y] += deltaTime * averageSpeed * (sin(startAngle) + 4 * sin(middleAngle) + sin(endAngle)) / 6;
+        }
+
+        state[VELOCITY_X] = averageSpeed * cos(endAngle);
+        state[VELOCITY_Y] = averageSpeed * sin(endAngle);
+        state[ANGLE] += deltaAngle / (2 * PI);
+        state[ANGLE] -= floor(state[ANGLE]);
+    }
+}
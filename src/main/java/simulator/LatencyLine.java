@@ -0,0 +1,81 @@
+package simulator;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * The common part of {@link DoubleLatencyLine} and {@link IntLatencyLine}: a circular buffer of the values that have
+ * been inserted, but are not yet visible. Values become visible in the order in which they were inserted, so each
+ * value is removed from the buffer exactly once, and both inserting and reading take amortized constant time.
+ * <p>
+ * The latency of each value is sampled from a distribution when it is inserted, which can be used to simulate jitter.
+ * Since a value can't overtake an earlier value, it becomes visible at its insertion time plus its latency, or when
+ * the previous value becomes visible, whichever comes later.
+ */
+abstract class LatencyLine {
+
+    private final DoubleSupplier latency;
+    private double[] visibleTimes = new double[16];
+    private double lastVisibleTime = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The buffer index of the oldest value that is not yet visible
+     */
+    int startIndex;
+    int size;
+
+    LatencyLine(DoubleSupplier latency) {
+        this.latency = latency;
+    }
+
+    int capacity() {
+        return visibleTimes.length;
+    }
+
+    /**
+     * Reserves the buffer slot for a new value that is inserted at the given time
+     * @return The buffer index where the subclass must store the value
+     */
+    int insertSlot(double currentTime) {
+        if (size == visibleTimes.length) {
+            visibleTimes = unwrap(visibleTimes, startIndex, size, 2 * size);
+            grow(2 * size);
+            startIndex = 0;
+        }
+
+        lastVisibleTime = Math.max(lastVisibleTime, currentTime + latency.getAsDouble());
+        int index = (startIndex + size) % visibleTimes.length;
+        visibleTimes[index] = lastVisibleTime;
+        size += 1;
+        return index;
+    }
+
+    /**
+     * Removes the oldest value if it's visible at the given time
+     * @return The buffer index of the removed value, or -1 when the oldest value is not visible (or there is none)
+     */
+    int pollVisible(double currentTime) {
+        if (size == 0 || visibleTimes[startIndex] > currentTime) return -1;
+        int index = startIndex;
+        startIndex = (startIndex + 1) % visibleTimes.length;
+        size -= 1;
+        return index;
+    }
+
+    /**
+     * Grows the value buffer of the subclass to the given capacity. The values must be moved such that the oldest
+     * value is at index 0, for instance using unwrap.
+     */
+    abstract void grow(int newCapacity);
+
+    static double[] unwrap(double[] buffer, int startIndex, int size, int newCapacity) {
+        var result = new double[newCapacity];
+        for (int offset = 0; offset < size; offset++) result[offset] = buffer[(startIndex + offset) % buffer.length];
+        return result;
+    }
+
+    static int[] unwrap(int[] buffer, int startIndex, int size, int newCapacity) {
+        var result = new int[newCapacity];
+        for (int offset = 0; offset < size; offset++) result[offset] = buffer[(startIndex + offset) % buffer.length];
+        return result;
+    }
+}
@@ -0,0 +1,282 @@
+package simulator;
+
+import controller.parameters.DuckieParameters;
+import planner.GridPosition;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import static controller.util.DuckieBot.GRID_SIZE;
+
+/**
+ * Runs many headless simulations of the same mission, each with other PID gains, latencies, slip chance, or terrain,
+ * and scores how well the duckiebot did. The simulations are independent, so they are spread over all cores. Since
+ * each simulation runs in virtual time, and all its randomness comes from its own seed, the results don't depend on the
+ * machine or on the number of threads, and any configuration can be replayed exactly.
+ * <p>
+ * The mission is a fixed loop through the 5x5 testing maze that ends in the starting cell, so the MazePlanner (which
+ * would explore a different route for each configuration) is not involved.
+ */
+public class ParameterSweep {
+
+    /**
+     * A loop through the 5x5 testing maze, with 6 turns, that ends in the starting cell
+     */
+    public static final List<GridPosition> MISSION = List.of(
+            position(1, 0), position(2, 0), position(2, 1), position(2, 2), position(1, 2),
+            position(1, 1), position(0, 1), position(-1, 1), position(-1, 0), position(0, 0)
+    );
+
+    /**
+     * The angle error (in turns) below which the duckiebot is considered to be settled
+     */
+    public static final double SETTLED_ANGLE_ERROR = 0.02;
+
+    /**
+     * The duckiebot is considered to be at rest when it moves slower than this speed, in meters per second
+     */
+    public static final double REST_SPEED = 0.001;
+
+    /**
+     * How long the duckiebot must stay at rest after finishing the route before the mission is finished, in seconds
+     */
+    public static final double SETTLE_TIME = 0.5;
+
+    private static GridPosition position(int x, int y) {
+        return new GridPosition((byte) x, (byte) y);
+    }
+
+    public record Configuration(
+            String terrain, double angleKp, double angleKi, double angleKd,
+            double speedKp, double speedKi, double speedKd,
+            double controlLatency, double tickLatency, double slipChance, long seed
+    ) {
+        public DuckieParameters createParameters() {
+            var parameters = new DuckieParameters();
+            parameters.anglePID.Kp = angleKp;
+            parameters.anglePID.Ki = angleKi;
+            parameters.anglePID.Kd = angleKd;
+            parameters.speedPID.Kp = speedKp;
+            parameters.speedPID.Ki = speedKi;
+            parameters.speedPID.Kd = speedKd;
+            return parameters;
+        }
+    }
+
+    /**
+     * @param angleError The root mean square of the difference between the desired angle and the real angle, in turns
+     * @param settlingTime The longest time that the angle error stayed above SETTLED_ANGLE_ERROR, in seconds
+     * @param missionTime The time it took to finish the route and come to rest, in seconds, or NaN if it wasn't
+     *                    finished in time
+     * @param finalError The distance between the final position and the center of the final cell, in meters
+     */
+    public record Result(
+            Configuration configuration, double angleError, double settlingTime, double missionTime, double finalError
+    ) {
+        public boolean isFinished() {
+            return !Double.isNaN(missionTime);
+        }
+    }
+
+    /**
+     * Sorts finished missions before unfinished missions, and then by mission time and angle error
+     */
+    public static final Comparator<Result> BEST_FIRST = Comparator.comparing((Result result) -> !result.isFinished())
+            .thenComparingDouble(result -> result.isFinished() ? result.missionTime : 0.0)
+            .thenComparingDouble(Result::angleError);
+
+    /**
+     * Simulates the mission with the given configuration, on the calling thread
+     * @param timeout The maximum (virtual) duration of the mission, in seconds
+     */
+    public static Result run(Configuration configuration, double timeout) {
+        var terrain = Terrain.PRESETS.get(configuration.terrain);
+        if (terrain == null) throw new IllegalArgumentException("Unknown terrain " + configuration.terrain);
+
+        var simulation = new HeadlessSimulation(
+                terrain, configuration.controlLatency, configuration.tickLatency, configuration.slipChance, 0.0,
+                configuration.createParameters(), configuration.seed, MISSION
+        );
+        var realPose = simulation.simulator.realPose;
+        var desiredVelocity = simulation.desiredVelocity;
+
+        double squaredErrorSum = 0.0;
+        int numSamples = 0;
+        double settlingTime = 0.0;
+        double unsettledSince = -1.0;
+        double missionTime = Double.NaN;
+        double restingSince = -1.0;
+        double lastX = realPose.x, lastY = realPose.y;
+        while (simulation.getTime() < timeout) {
+            simulation.run(0.001);
+
+            double angleError = desiredVelocity.angle - realPose.angle;
+            angleError -= Math.round(angleError); // Between -0.5 and 0.5 turns
+            squaredErrorSum += angleError * angleError;
+            numSamples += 1;
+
+            if (Math.abs(angleError) > SETTLED_ANGLE_ERROR) {
+                if (unsettledSince == -1.0) unsettledSince = simulation.getTime();
+                settlingTime = Math.max(settlingTime, simulation.getTime() - unsettledSince);
+            } else unsettledSince = -1.0;
+
+            // The route is finished as soon as the last position is handed to the controllers, while the duckiebot is
+            // still driving to it, so the mission is only finished once the duckiebot has come to rest
+            double speed = Math.hypot(realPose.x - lastX, realPose.y - lastY) / 0.001;
+            lastX = realPose.x;
+            lastY = realPose.y;
+            if (simulation.isRouteFinished() && speed < REST_SPEED) {
+                if (restingSince == -1.0) restingSince = simulation.getTime();
+                if (simulation.getTime() - restingSince >= SETTLE_TIME) {
+                    missionTime = restingSince;
+                    break;
+                }
+            } else restingSince = -1.0;
+        }
+
+        var finalCell = MISSION.get(MISSION.size() - 1);
+        double finalError = Math.hypot(
+                realPose.x - GRID_SIZE * (finalCell.x() + 0.5), realPose.y - GRID_SIZE * (finalCell.y() + 0.5)
+        );
+        return new Result(
+                configuration, Math.sqrt(squaredErrorSum / numSamples), settlingTime, missionTime, finalError
+        );
+    }
+
+    /**
+     * Simulates the mission for each configuration, using 1 thread per available processor
+     * @return The results, in the same order as the configurations
+     */
+    public static List<Result> runAll(List<Configuration> configurations, double timeout) {
+        int numThreads = Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, configurations.size()));
+        var executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            var tasks = new ArrayList<Callable<Result>>(configurations.size());
+            for (var configuration : configurations) tasks.add(() -> run(configuration, timeout));
+
+            var results = new ArrayList<Result>(configurations.size());
+            for (var future : executor.invokeAll(tasks)) results.add(future.get());
+            return results;
+        } catch (InterruptedException | ExecutionException failed) {
+            throw new RuntimeException(failed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Every combination of the given terrains and values, where the integral gains and the derivative gain of
+     * the speed PID are those of the DuckieParameters. Configuration i gets seed baseSeed + i.
+     */
+    public static List<Configuration> grid(
+            List<String> terrains, double[] angleKps, double[] angleKds, double[] speedKps,
+            double[] latencies, double[] slipChances, long baseSeed
+    ) {
+        var defaults = new DuckieParameters();
+        var configurations = new ArrayList<Configuration>();
+        for (var terrain : terrains) {
+            for (double angleKp : angleKps) {
+                for (double angleKd : angleKds) {
+                    for (double speedKp : speedKps) {
+                        for (double latency : latencies) {
+                            for (double slipChance : slipChances) {
+                                configurations.add(new Configuration(
+                                        terrain, angleKp, defaults.anglePID.Ki, angleKd,
+                                        speedKp, defaults.speedPID.Ki, defaults.speedPID.Kd,
+                                        latency, latency, slipChance, baseSeed + configurations.size()
+                                ));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return configurations;
+    }
+
+    /**
+     * @return numConfigurations configurations with a random terrain, and gains, latencies, and slip chances that are
+     * chosen uniformly between 0.5 and 1.5 times the defaults, 0 and 0.05 seconds, and 0 and 0.02
+     */
+    public static List<Configuration> randomSample(int numConfigurations, long seed) {
+        var random = new Random(seed);
+        var defaults = new DuckieParameters();
+        var terrains = new ArrayList<>(Terrain.PRESETS.keySet());
+        var configurations = new ArrayList<Configuration>(numConfigurations);
+        for (int counter = 0; counter < numConfigurations; counter++) {
+            configurations.add(new Configuration(
+                    terrains.get(random.nextInt(terrains.size())),
+                    defaults.anglePID.Kp * (0.5 + random.nextDouble()),
+                    defaults.anglePID.Ki,
+                    defaults.anglePID.Kd * (0.5 + random.nextDouble()),
+                    defaults.speedPID.Kp * (0.5 + random.nextDouble()),
+                    defaults.speedPID.Ki,
+                    defaults.speedPID.Kd * (0.5 + random.nextDouble()),
+                    0.05 * random.nextDouble(), 0.05 * random.nextDouble(), 0.02 * random.nextDouble(),
+                    random.nextLong()
+            ));
+        }
+        return configurations;
+    }
+
+    /**
+     * Writes 1 tab-separated line per result, preceded by a header line
+     */
+    public static void printTable(List<Result> results, PrintStream output) {
+        output.println(
+                "terrain\tangleKp\tangleKi\tangleKd\tspeedKp\tspeedKi\tspeedKd\tcontrolLatency\ttickLatency\t" +
+                        "slipChance\tseed\tangleError\tsettlingTime\tmissionTime\tfinalError"
+        );
+        for (var result : results) {
+            var configuration = result.configuration;
+            output.printf(
+                    "%s\t%.4g\t%.4g\t%.4g\t%.4g\t%.4g\t%.4g\t%.3f\t%.3f\t%.4f\t%d\t%.4f\t%.3f\t%.3f\t%.3f%n",
+                    configuration.terrain, configuration.angleKp, configuration.angleKi, configuration.angleKd,
+                    configuration.speedKp, configuration.speedKi, configuration.speedKd,
+                    configuration.controlLatency, configuration.tickLatency, configuration.slipChance,
+                    configuration.seed, result.angleError, result.settlingTime, result.missionTime, result.finalError
+            );
+        }
+    }
+
+    /**
+     * Runs a grid sweep (the default), or a random sample when the first argument is a number of configurations.
+     * The results are written to the file given by the second argument (sweep.tsv by default), and the 10 best
+     * results are printed.
+     */
+    public static void main(String[] args) throws IOException {
+        List<Configuration> configurations;
+        if (args.length > 0) configurations = randomSample(Integer.parseInt(args[0]), 1234L);
+        else configurations = grid(
+                new ArrayList<>(Terrain.PRESETS.keySet()), new double[] { 10.0, 20.0, 30.0 },
+                new double[] { 1.5, 2.5 }, new double[] { 1.0, 1.5 }, new double[] { 0.0, 0.02 },
+                new double[] { 0.0, 0.01 }, 1234L
+        );
+        var output = Path.of(args.length > 1 ? args[1] : "sweep.tsv");
+
+        long startTime = System.nanoTime();
+        var results = runAll(configurations, 60.0);
+        double realTime = (System.nanoTime() - startTime) / 1_000_000_000.0;
+
+        try (var fileOutput = new PrintStream(Files.newOutputStream(output))) {
+            printTable(results, fileOutput);
+        }
+
+        var bestResults = new ArrayList<>(results);
+        bestResults.sort(BEST_FIRST);
+        System.out.printf(
+                "Simulated %d configurations in %.1f seconds, wrote the results to %s%n",
+                results.size(), realTime, output
+        );
+        printTable(bestResults.subList(0, Math.min(10, bestResults.size())), System.out);
+    }
+}
@@ -10,7 +10,8 @@ import state.DuckieControls;
 import state.DuckiePose;
 import state.DuckieState;
 
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 import static controller.util.DuckieBot.*;
 import static java.lang.Math.*;
@@ -25,13 +26,46 @@ public class Simulator implements ControllerFunction {
     public final DuckieState trackedState;
     public final WallGrid walls = SimulatorMaze.createTestingWallGrid5x5();
 
-    private final SimulatorLatency<Double> leftControl, rightControl;
-    private final SimulatorLatency<Integer> leftTicks, rightTicks;
+    private final DoubleLatencyLine leftControl, rightControl;
+    private final IntLatencyLine leftTicks, rightTicks;
     private final int cameraInterval;
     private final double leftSlipChance, rightSlipChance;
     private final double maxCameraNoise;
 
+    /**
+     * Separate random number generators for the slip, the terrain, and the camera noise, so that for instance adding
+     * camera noise doesn't change when the wheels slip
+     */
+    private final SplittableRandom slipRandom, terrainRandom, cameraRandom;
+
+    /**
+     * The method that is used to integrate the pose
+     */
+    public volatile Integrator integrator = Integrator.EULER;
+
+    /**
+     * The pose that is passed to the integrator, which is only used inside the (synchronized) update
+     */
+    private final double[] moveState = new double[Integrator.STATE_SIZE];
+
+    /**
+     * The number of sub-steps into which each update is split. The motor signals are read at the end of each sub-step,
+     * so using sub-steps makes the (delayed) motor signals more accurate when the updates are large. The wheel
+     * encoders and the camera are still updated once per update.
+     */
+    public volatile int numSubSteps = 1;
+
+    /**
+     * The simulation time, in seconds and in nanoseconds. All simulated sensors use this time, rather than the real
+     * time, so the result doesn't depend on how fast the simulation runs.
+     */
     private double currentTime = 0.0;
+    private volatile long currentNanoTime = 0;
+
+    /**
+     * The simulation time (in nanoseconds) of the last camera frame, or -1 when there hasn't been a frame yet
+     */
+    private long lastCameraTime = -1;
 
     public Simulator(Terrain terrain) {
         this(terrain, 0.0, 0.0, 0.0, 0.0,
@@ -44,19 +78,56 @@ public class Simulator implements ControllerFunction {
             double leftControlLatency, double rightControlLatency,
             double leftTickLatency, double rightTickLatency,
             int cameraInterval, double leftSlipChance, double rightSlipChance, double maxCameraNoise
+    ) {
+        this(
+                terrain, leftControlLatency, rightControlLatency, leftTickLatency, rightTickLatency,
+                cameraInterval, leftSlipChance, rightSlipChance, maxCameraNoise, new SplittableRandom()
+        );
+    }
+
+    /**
+     * @param seed The seed of the random number generator that decides when the wheels slip, the noise of the terrain,
+     *             and the noise of the camera. Simulations with the same seed (and the same controls) are identical.
+     */
+    public Simulator(
+            Terrain terrain,
+            double leftControlLatency, double rightControlLatency,
+            double leftTickLatency, double rightTickLatency,
+            int cameraInterval, double leftSlipChance, double rightSlipChance, double maxCameraNoise, long seed
+    ) {
+        this(
+                terrain, leftControlLatency, rightControlLatency, leftTickLatency, rightTickLatency,
+                cameraInterval, leftSlipChance, rightSlipChance, maxCameraNoise, new SplittableRandom(seed)
+        );
+    }
+
+    /**
+     * @param cameraInterval The time between 2 camera frames, in milliseconds of simulation time
+     * @param random The random number generator of the simulation. The simulator splits it, and never uses it
+     *               directly, so the caller can keep splitting it for other components of the same simulation.
+     */
+    public Simulator(
+            Terrain terrain,
+            double leftControlLatency, double rightControlLatency,
+            double leftTickLatency, double rightTickLatency,
+            int cameraInterval, double leftSlipChance, double rightSlipChance, double maxCameraNoise,
+            SplittableRandom random
     ) {
         this.terrain = terrain;
+        this.slipRandom = random.split();
+        this.terrainRandom = random.split();
+        this.cameraRandom = random.split();
         this.realPose = new DuckiePose();
         this.estimations = new DuckieEstimations();
         this.controls = new DuckieControls();
         this.trackedState = new DuckieState();
-        this.trackedState.leftWheelEncoder = new DuckieState.WheelEncoderEntry(System.nanoTime(), 0);
-        this.trackedState.rightWheelEncoder = new DuckieState.WheelEncoderEntry(System.nanoTime(), 0);
+        this.trackedState.leftWheelEncoder.write(0, 0);
+        this.trackedState.rightWheelEncoder.write(0, 0);
 
-        this.leftControl = new SimulatorLatency<>(leftControlLatency, 0.0);
-        this.rightControl = new SimulatorLatency<>(rightControlLatency, 0.0);
-        this.leftTicks = new SimulatorLatency<>(leftTickLatency, 0);
-        this.rightTicks = new SimulatorLatency<>(rightTickLatency, 0);
+        this.leftControl = new DoubleLatencyLine(leftControlLatency, 0.0);
+        this.rightControl = new DoubleLatencyLine(rightControlLatency, 0.0);
+        this.leftTicks = new IntLatencyLine(leftTickLatency, 0);
+        this.rightTicks = new IntLatencyLine(rightTickLatency, 0);
 
         this.cameraInterval = cameraInterval;
         this.leftSlipChance = leftSlipChance;
@@ -64,6 +135,15 @@ public class Simulator implements ControllerFunction {
         this.maxCameraNoise = maxCameraNoise;
     }
 
+    /**
+     * @return The simulation time, in nanoseconds. This is the clock of all simulated sensors, so the controllers that
+     * compare sensor timestamps with the current time (like the SpeedEstimator) should use this instead of
+     * System.nanoTime.
+     */
+    public long nanoTime() {
+        return currentNanoTime;
+    }
+
     private double clampThrottle(double input) {
         if (input > 1) return 1;
         if (input < -1) return -1;
@@ -71,45 +151,65 @@ public class Simulator implements ControllerFunction {
     }
 
     /**
-     * This should be called 1000 times per second
+     * Moves the duckiebot during 1 sub-step, in which the speeds of the wheels are constant
+     */
+    private void move(Integrator integrator, double deltaTime, double leftVelocity, double rightVelocity) {
+        moveState[Integrator.X] = realPose.x;
+        moveState[Integrator.Y] = realPose.y;
+        moveState[Integrator.ANGLE] = realPose.angle;
+        moveState[Integrator.VELOCITY_X] = realPose.velocityX;
+        moveState[Integrator.VELOCITY_Y] = realPose.velocityY;
+        integrator.move(moveState, deltaTime, leftVelocity, rightVelocity);
+        realPose.x = moveState[Integrator.X];
+        realPose.y = moveState[Integrator.Y];
+        realPose.angle = moveState[Integrator.ANGLE];
+        realPose.velocityX = moveState[Integrator.VELOCITY_X];
+        realPose.velocityY = moveState[Integrator.VELOCITY_Y];
+    }
+
+    /**
+     * This should be called 1000 times per second, unless sub-steps or another integrator than EULER are used
      */
     @Override
     public synchronized void update(double deltaTime) {
-        currentTime += deltaTime;
+        long timestamp = currentNanoTime + Math.round(deltaTime * 1_000_000_000.0);
+        currentNanoTime = timestamp;
 
-        leftControl.insert(currentTime, clampThrottle(controls.velLeft));
-        rightControl.insert(currentTime, clampThrottle(controls.velRight));
+        var integrator = this.integrator;
+        int numSubSteps = this.numSubSteps;
+        double subStepTime = deltaTime / numSubSteps;
+        boolean leftSlips = slipRandom.nextDouble() < leftSlipChance;
+        boolean rightSlips = slipRandom.nextDouble() < rightSlipChance;
 
-        realPose.x += deltaTime * realPose.velocityX;
-        realPose.y += deltaTime * realPose.velocityY;
+        double leftThrottle = 0.0, rightThrottle = 0.0;
+        for (int subStep = 0; subStep < numSubSteps; subStep++) {
+            currentTime += subStepTime;
+            leftControl.insert(currentTime, clampThrottle(controls.velLeft));
+            rightControl.insert(currentTime, clampThrottle(controls.velRight));
 
-        double leftVelocity = terrain.leftSpeedFunction.apply(leftControl.get(currentTime));
-        double rightVelocity = terrain.rightSpeedFunction.apply(rightControl.get(currentTime));
-        double averageVelocity = 0.5 * (leftVelocity + rightVelocity);
-        double angleRadians = realPose.angle * 2 * PI; // Convert turns to radians
-        realPose.velocityX = averageVelocity * cos(angleRadians);
-        realPose.velocityY = averageVelocity * sin(angleRadians);
+            leftThrottle = leftControl.get(currentTime);
+            rightThrottle = rightControl.get(currentTime);
+            double leftVelocity = terrain.leftSpeedFunction.apply(leftThrottle, terrainRandom);
+            double rightVelocity = terrain.rightSpeedFunction.apply(rightThrottle, terrainRandom);
+            move(integrator, subStepTime, leftVelocity, rightVelocity);
 
-        realPose.angle += deltaTime * (rightVelocity - leftVelocity) / (2 * PI * DISTANCE_BETWEEN_WHEELS);
-        if (realPose.angle >= 1) realPose.angle -= 1;
-        if (realPose.angle < 0) realPose.angle += 1;
-
-        if (Math.random() >= leftSlipChance) {
-            this.exactLeftWheelTicks += WHEEL_TICKS_PER_TURN * deltaTime * leftVelocity / (2 * PI * WHEEL_RADIUS);
-        }
-        if (Math.random() >= rightSlipChance) {
-            this.exactRightWheelTicks += WHEEL_TICKS_PER_TURN * deltaTime * rightVelocity / (2 * PI * WHEEL_RADIUS);
+            if (!leftSlips) {
+                exactLeftWheelTicks += WHEEL_TICKS_PER_TURN * subStepTime * leftVelocity / (2 * PI * WHEEL_RADIUS);
+            }
+            if (!rightSlips) {
+                exactRightWheelTicks += WHEEL_TICKS_PER_TURN * subStepTime * rightVelocity / (2 * PI * WHEEL_RADIUS);
+            }
         }
         leftTicks.insert(currentTime, (int) exactLeftWheelTicks);
         rightTicks.insert(currentTime, (int) exactRightWheelTicks);
-        trackedState.leftWheelEncoder = new DuckieState.WheelEncoderEntry(System.nanoTime(), leftTicks.get(currentTime));
-        trackedState.rightWheelEncoder = new DuckieState.WheelEncoderEntry(System.nanoTime(), rightTicks.get(currentTime));
-        trackedState.leftWheelControl = leftControl.get(currentTime);
-        trackedState.rightWheelControl = rightControl.get(currentTime);
-
-        var oldWalls = trackedState.cameraWalls;
-        long currentTime = System.currentTimeMillis();
-        if (oldWalls == null || (currentTime - oldWalls.timestamp() > cameraInterval)) {
+        trackedState.leftWheelEncoder.write(timestamp, leftTicks.get(currentTime));
+        trackedState.rightWheelEncoder.write(timestamp, rightTicks.get(currentTime));
+        trackedState.notifyEncoderListeners();
+        trackedState.leftWheelControl = leftThrottle;
+        trackedState.rightWheelControl = rightThrottle;
+
+        if (lastCameraTime == -1 || timestamp - lastCameraTime >= cameraInterval * 1_000_000L) {
+            lastCameraTime = timestamp;
             double realAngleRad = realPose.angle * 2 * PI;
             var cameraPose = new WallSnapper.FixedPose(
                     realPose.x + CAMERA_OFFSET * cos(realAngleRad),
@@ -117,10 +217,11 @@ public class Simulator implements ControllerFunction {
                     realPose.angle
             );
             var visibleWalls = walls.findVisibleWalls(cameraPose);
-            var relativeWalls = visibleWalls.stream().map(
-                    wall -> RelativeWall.noisyFromGrid(wall, cameraPose, maxCameraNoise)
-            ).collect(Collectors.toSet());
-            trackedState.cameraWalls = new CameraWalls(currentTime, relativeWalls);
+            var relativeWalls = new ArrayList<RelativeWall>(visibleWalls.size());
+            for (var wall : visibleWalls) {
+                relativeWalls.add(RelativeWall.noisyFromGrid(wall, cameraPose, maxCameraNoise, cameraRandom));
+            }
+            trackedState.cameraWalls = new CameraWalls(timestamp, relativeWalls);
 
             int duckieX = 0;
             double realDuckieX = (duckieX + 0.5) * GRID_SIZE;
@@ -145,7 +246,7 @@ public class Simulator implements ControllerFunction {
                 }
 
                 if (isDuckieVisible) {
-                    trackedState.duckie = new DuckieState.DuckiePosition(System.nanoTime(), new RelativeWall(
+                    trackedState.duckie = new DuckieState.DuckiePosition(timestamp, new RelativeWall(
                             relativeDistance, relativeAngle
                     ));
                 }
@@ -0,0 +1,98 @@
+package simulator;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A speed function that interpolates linearly between speeds at equally spaced motor signals (the knots). Below the
+ * first knot and above the last knot, the speed of the nearest knot is used. Since the knots are equally spaced,
+ * looking up a speed takes constant time, and doesn't allocate anything.
+ * <p>
+ * Tables are usually fitted to motor signals and wheel speeds that were measured on a real surface, so that the
+ * simulator can mimic that surface.
+ */
+public final class SpeedTable implements DoubleUnaryOperator {
+
+    private final double minSignal, knotDistance;
+    private final double[] speeds;
+
+    /**
+     * @param minSignal The motor signal of the first knot
+     * @param maxSignal The motor signal of the last knot
+     * @param speeds The speed at each knot, in turns per second. There must be at least 2 knots.
+     */
+    public SpeedTable(double minSignal, double maxSignal, double[] speeds) {
+        if (speeds.length < 2) throw new IllegalArgumentException("At least 2 knots are needed, but got " + speeds.length);
+        if (!(maxSignal > minSignal)) {
+            throw new IllegalArgumentException("maxSignal (" + maxSignal + ") must be larger than minSignal " + minSignal);
+        }
+        this.minSignal = minSignal;
+        this.knotDistance = (maxSignal - minSignal) / (speeds.length - 1);
+        this.speeds = speeds.clone();
+    }
+
+    @Override
+    public double applyAsDouble(double motorSignal) {
+        double position = (motorSignal - minSignal) / knotDistance;
+        if (!(position > 0.0)) return speeds[0];
+        int index = (int) position;
+        if (index >= speeds.length - 1) return speeds[speeds.length - 1];
+        double fraction = position - index;
+        return (1.0 - fraction) * speeds[index] + fraction * speeds[index + 1];
+    }
+
+    /**
+     * Fits a table to the measured (motor signal, speed) samples, by minimizing the sum of the squared differences
+     * between the table and the measured speeds. The samples don't need to be sorted, and may contain noise and
+     * duplicates. To keep the fit well-defined, the differences between neighbouring knots are penalized a tiny bit, so
+     * knots without nearby samples are interpolated linearly between the nearest knots that do have samples.
+     * @param numKnots The number of knots, which are spread evenly between minSignal and maxSignal
+     */
+    public static SpeedTable fit(
+            double[] signals, double[] measuredSpeeds, double minSignal, double maxSignal, int numKnots
+    ) {
+        if (signals.length != measuredSpeeds.length) {
+            throw new IllegalArgumentException(signals.length + " signals, but " + measuredSpeeds.length + " speeds");
+        }
+        if (signals.length == 0) throw new IllegalArgumentException("At least 1 sample is needed");
+        if (numKnots < 2) throw new IllegalArgumentException("At least 2 knots are needed, but got " + numKnots);
+        double knotDistance = (maxSignal - minSignal) / (numKnots - 1);
+
+        // Each sample only affects its 2 surrounding knots, so the normal equations are tridiagonal
+        double[] diagonal = new double[numKnots];
+        double[] offDiagonal = new double[numKnots - 1];
+        double[] rightHandSide = new double[numKnots];
+        for (int sample = 0; sample < signals.length; sample++) {
+            double position = (signals[sample] - minSignal) / knotDistance;
+            position = Math.max(0.0, Math.min(numKnots - 1, position));
+            int index = Math.min((int) position, numKnots - 2);
+            double fraction = position - index;
+
+            diagonal[index] += (1.0 - fraction) * (1.0 - fraction);
+            offDiagonal[index] += (1.0 - fraction) * fraction;
+            diagonal[index + 1] += fraction * fraction;
+            rightHandSide[index] += (1.0 - fraction) * measuredSpeeds[sample];
+            rightHandSide[index + 1] += fraction * measuredSpeeds[sample];
+        }
+
+        double smoothing = 1e-6 * signals.length;
+        for (int index = 0; index < numKnots - 1; index++) {
+            diagonal[index] += smoothing;
+            diagonal[index + 1] += smoothing;
+            offDiagonal[index] -= smoothing;
+        }
+
+        // Solve the symmetric positive definite tridiagonal system with the Thomas algorithm
+        double[] upper = new double[numKnots - 1];
+        double[] speeds = new double[numKnots];
+        double pivot = diagonal[0];
+        speeds[0] = rightHandSide[0] / pivot;
+        for (int index = 1; index < numKnots; index++) {
+            upper[index - 1] = offDiagonal[index - 1] / pivot;
+            pivot = diagonal[index] - offDiagonal[index - 1] * upper[index - 1];
+            speeds[index] = (rightHandSide[index] - offDiagonal[index - 1] * speeds[index - 1]) / pivot;
+        }
+        for (int index = numKnots - 2; index >= 0; index--) speeds[index] -= upper[index] * speeds[index + 1];
+
+        return new SpeedTable(minSignal, maxSignal, speeds);
+    }
+}
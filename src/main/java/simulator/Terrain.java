@@ -1,6 +1,13 @@
 package simulator;
 
-import java.util.function.DoubleFunction;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.random.RandomGenerator;
 
 import static java.lang.Math.*;
 
@@ -19,14 +26,18 @@ public class Terrain {
     public static final Terrain SLOPED_SLOW = new Terrain(motorSignal -> max(0.0, 0.6 * motorSignal - 0.2));
     public static final Terrain SLOPED_FAST = new Terrain(motorSignal -> max(0.0, 1.8 * motorSignal - 0.1));
 
-    public static final Terrain NOISY_SLOW = new Terrain(
-            motorSignal -> signum(motorSignal) * max(0, (0.3 * Math.random() + 0.6) * abs(motorSignal) - 0.1)
+    public static final Terrain NOISY_SLOW = new Terrain((motorSignal, random) ->
+            signum(motorSignal) * max(0, (0.3 * random.nextDouble() + 0.6) * abs(motorSignal) - 0.1)
     );
-    public static final Terrain VERY_NOISY_SLOW = new Terrain(
-            motorSignal -> signum(motorSignal) * max(0, (0.7 * Math.random() + 0.4) * abs(motorSignal) - 0.1)
+    public static final Terrain VERY_NOISY_SLOW = new Terrain((motorSignal, random) ->
+            signum(motorSignal) * max(0, (0.7 * random.nextDouble() + 0.4) * abs(motorSignal) - 0.1)
+    );
+    public static final Terrain NOISY_FAST = new Terrain(
+            (motorSignal, random) -> (0.4 * random.nextDouble() + 1.2) * motorSignal
+    );
+    public static final Terrain VERY_NOISY_FAST = new Terrain(
+            (motorSignal, random) -> (0.8 * random.nextDouble() + 0.8) * motorSignal
     );
-    public static final Terrain NOISY_FAST = new Terrain(motorSignal -> (0.4 * Math.random() + 1.2) * motorSignal);
-    public static final Terrain VERY_NOISY_FAST = new Terrain(motorSignal -> (0.8 * Math.random() + 0.8) * motorSignal);
 
     public static final Terrain SKEWED_SLOW = new Terrain(
             leftSignal -> max(0.6 * leftSignal - 0.15, 0.0),
@@ -38,6 +49,28 @@ public class Terrain {
             rightSignal -> max(0.9 * rightSignal - 0.1, 0.0)
     );
 
+    /**
+     * All terrains above, by the name of their constant
+     */
+    public static final Map<String, Terrain> PRESETS;
+
+    static {
+        var presets = new LinkedHashMap<String, Terrain>();
+        presets.put("IDEAL", IDEAL);
+        presets.put("SIMPLE_VERY_SLOW", SIMPLE_VERY_SLOW);
+        presets.put("SIMPLE_SLOW", SIMPLE_SLOW);
+        presets.put("SIMPLE_FAST", SIMPLE_FAST);
+        presets.put("SLOPED_SLOW", SLOPED_SLOW);
+        presets.put("SLOPED_FAST", SLOPED_FAST);
+        presets.put("NOISY_SLOW", NOISY_SLOW);
+        presets.put("VERY_NOISY_SLOW", VERY_NOISY_SLOW);
+        presets.put("NOISY_FAST", NOISY_FAST);
+        presets.put("VERY_NOISY_FAST", VERY_NOISY_FAST);
+        presets.put("SKEWED_SLOW", SKEWED_SLOW);
+        presets.put("SKEWED_FAST", SKEWED_FAST);
+        PRESETS = Collections.unmodifiableMap(presets);
+    }
+
     /**
      * <p>
      * The speed functions map the motor signal (in range -1 to 1) to an angular velocity in turns per second. For
@@ -49,15 +82,79 @@ public class Terrain {
      *     Experience has learned us that the 'speed function' on the table is not the same as the speed function on
      *     the floor.
      * </p>
+     * <p>
+     *     Noisy terrains must take their noise from the given random number generator, which belongs to the
+     *     simulation, so that simulations with the same seed are repeatable.
+     * </p>
      */
-    public final DoubleFunction<Double> leftSpeedFunction, rightSpeedFunction;
+    public final SpeedFunction leftSpeedFunction, rightSpeedFunction;
 
-    public Terrain(DoubleFunction<Double> leftSpeedFunction, DoubleFunction<Double> rightSpeedFunction) {
+    public Terrain(SpeedFunction leftSpeedFunction, SpeedFunction rightSpeedFunction) {
         this.leftSpeedFunction = leftSpeedFunction;
         this.rightSpeedFunction = rightSpeedFunction;
     }
 
-    public Terrain(DoubleFunction<Double> speedFunction) {
+    public Terrain(SpeedFunction speedFunction) {
         this(speedFunction, speedFunction);
     }
+
+    /**
+     * Creates a terrain without noise
+     */
+    public Terrain(DoubleUnaryOperator leftSpeedFunction, DoubleUnaryOperator rightSpeedFunction) {
+        this(
+                (motorSignal, random) -> leftSpeedFunction.applyAsDouble(motorSignal),
+                (motorSignal, random) -> rightSpeedFunction.applyAsDouble(motorSignal)
+        );
+    }
+
+    /**
+     * Creates a terrain without noise
+     */
+    public Terrain(DoubleUnaryOperator speedFunction) {
+        this(speedFunction, speedFunction);
+    }
+
+    /**
+     * Creates a terrain without noise, whose speed functions are SpeedTables that are fitted to a recording of a real
+     * surface. Each line of the recording must contain a motor signal, followed by the measured speed of the left
+     * wheel and the right wheel (in turns per second), separated by whitespace. Empty lines and lines that start with
+     * # are ignored.
+     * @param numKnots The number of knots of each table, which are spread evenly between motor signal -1 and 1
+     */
+    public static Terrain fromRecording(Path recording, int numKnots) throws IOException {
+        var lines = Files.readAllLines(recording).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+
+        double[] signals = new double[lines.size()];
+        double[] leftSpeeds = new double[lines.size()];
+        double[] rightSpeeds = new double[lines.size()];
+        for (int index = 0; index < lines.size(); index++) {
+            String[] parts = lines.get(index).split("\\s+");
+            if (parts.length != 3) throw new IOException("Expected 3 numbers, but got: " + lines.get(index));
+            try {
+                signals[index] = Double.parseDouble(parts[0]);
+                leftSpeeds[index] = Double.parseDouble(parts[1]);
+                rightSpeeds[index] = Double.parseDouble(parts[2]);
+            } catch (NumberFormatException invalid) {
+                throw new IOException("Expected 3 numbers, but got: " + lines.get(index), invalid);
+            }
+        }
+
+        return new Terrain(
+                SpeedTable.fit(signals, leftSpeeds, -1.0, 1.0, numKnots),
+                SpeedTable.fit(signals, rightSpeeds, -1.0, 1.0, numKnots)
+        );
+    }
+
+    @FunctionalInterface
+    public interface SpeedFunction {
+
+        /**
+         * @return The angular velocity of the wheel, in turns per second
+         */
+        double apply(double motorSignal, RandomGenerator random);
+    }
 }
@@ -37,47 +37,172 @@ public class WallGrid {
         return new WallView(distance, minAngle, maxAngle);
     }
 
-    private final Set<GridWall> allWalls = new HashSet<>();
+    /**
+     * The current walls. Writers replace this snapshot (while holding the lock of this grid), and readers can simply
+     * read it without locking.
+     */
+    private volatile WallSnapshot walls = WallSnapshot.EMPTY;
 
     public synchronized void add(GridWall wall) {
-        allWalls.add(wall);
+        walls = walls.with(List.of(wall), List.of());
     }
 
-    public synchronized Set<GridWall> findVisibleWalls(WallSnapper.FixedPose camera) {
+    /**
+     * Adds all given walls. This is cheaper than adding them one by one, since it only publishes 1 new snapshot.
+     */
+    public synchronized void addAll(Collection<GridWall> newWalls) {
+        walls = walls.with(newWalls, List.of());
+    }
+
+    /**
+     * Adds the added walls and removes the removed walls, and publishes the result as 1 new snapshot
+     */
+    public synchronized void update(Collection<GridWall> addedWalls, Collection<GridWall> removedWalls) {
+        walls = walls.with(addedWalls, removedWalls);
+    }
+
+    public boolean contains(GridWall wall) {
+        return walls.contains(wall);
+    }
+
+    /**
+     * @return An immutable snapshot of the current walls. This doesn't copy anything.
+     */
+    public WallSnapshot snapshot() {
+        return walls;
+    }
+
+    /**
+     * Finds the walls that the camera can see. A wall is visible when it overlaps the field of view, and more than
+     * 0.02 turns of it are not hidden behind walls that are closer to the camera. The angles of each wall are sampled
+     * with steps of 0.001 turns, and a sample is hidden when it lies strictly between the minimum and maximum angle of
+     * a closer wall. Walls at exactly the same distance don't hide each other.
+     * <p>
+     * This sweeps over the walls from near to far, while maintaining the union of the angle intervals of the walls that
+     * have been swept so far. Checking whether a sample is hidden is then a binary search in this union, rather than a
+     * comparison with every other wall.
+     */
+    public Set<GridWall> findVisibleWalls(WallSnapper.FixedPose camera) {
         var visibleWalls = new HashSet<GridWall>();
 
-        double fov = 0.125; // Assume camera field of view to be 45 degrees
-        for (var candidateWall : allWalls) {
-            var candidateView = getWallView(candidateWall, camera);
-            Collection<Double> candidateAngles = new LinkedList<>();
-            for (double candidateAngle = candidateView.minAngle; candidateAngle <= candidateView.maxAngle; candidateAngle += 0.001) {
-                candidateAngles.add(candidateAngle);
-            }
-            int originalSize = candidateAngles.size();
+        var snapshot = this.walls;
+        int numWalls = snapshot.size();
+        var walls = new GridWall[numWalls];
+        int[] nextIndex = { 0 };
+        snapshot.forEach(wall -> walls[nextIndex[0]++] = wall);
+
+        var views = new WallView[numWalls];
+        var order = new Integer[numWalls];
+        for (int index = 0; index < numWalls; index++) {
+            views[index] = getWallView(walls[index], camera);
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(index -> views[index].distance));
 
-            if (candidateView.maxAngle > -fov && candidateView.minAngle < fov) {
+        var hiddenIntervals = new AngleIntervals();
 
-                for (var otherWall : allWalls) {
-                    var otherView = getWallView(otherWall, camera);
-                    if (otherView.distance < candidateView.distance) {
-                        candidateAngles.removeIf(
-                                candidateAngle -> candidateAngle > otherView.minAngle && candidateAngle < otherView.maxAngle
-                        );
-                    }
+        double fov = 0.125; // Assume camera field of view to be 45 degrees
+        int groupStart = 0;
+        while (groupStart < numWalls) {
+
+            // Walls at the same distance don't hide each other, so they must be checked before any of them is added
+            int groupEnd = groupStart + 1;
+            double groupDistance = views[order[groupStart]].distance;
+            while (groupEnd < numWalls && views[order[groupEnd]].distance == groupDistance) groupEnd += 1;
+
+            for (int orderIndex = groupStart; orderIndex < groupEnd; orderIndex++) {
+                var candidateView = views[order[orderIndex]];
+                if (candidateView.maxAngle <= -fov || candidateView.minAngle >= fov) continue;
+
+                // The covered angle can't exceed the total angle of the wall
+                if (candidateView.maxAngle - candidateView.minAngle <= 0.02) continue;
+
+                int originalSize = 0;
+                int numVisibleAngles = 0;
+                for (double candidateAngle = candidateView.minAngle; candidateAngle <= candidateView.maxAngle; candidateAngle += 0.001) {
+                    originalSize += 1;
+                    if (!hiddenIntervals.isHidden(candidateAngle)) numVisibleAngles += 1;
                 }
 
-                double coveredAngle = (candidateView.maxAngle - candidateView.minAngle) * candidateAngles.size() / originalSize;
+                double coveredAngle = (candidateView.maxAngle - candidateView.minAngle) * numVisibleAngles / originalSize;
                 if (coveredAngle > 0.02) {
-                    visibleWalls.add(candidateWall);
+                    visibleWalls.add(walls[order[orderIndex]]);
                 }
             }
+
+            for (int orderIndex = groupStart; orderIndex < groupEnd; orderIndex++) {
+                var view = views[order[orderIndex]];
+                hiddenIntervals.add(view.minAngle, view.maxAngle);
+            }
+            groupStart = groupEnd;
         }
 
         return visibleWalls;
     }
 
-    public synchronized Set<GridWall> copyWalls() {
-        return new HashSet<>(allWalls);
+    /**
+     * A union of open angle intervals, which are stored in primitive arrays that are sorted by their start. The
+     * intervals are disjoint, and intervals that only touch each other are not merged, since the angle where they touch
+     * is not hidden.
+     */
+    private static final class AngleIntervals {
+
+        private double[] starts = new double[16], ends = new double[16];
+        private int size;
+
+        /**
+         * @return The number of intervals whose start is smaller than angle, or at most angle when inclusive
+         */
+        private int countStartsBefore(double angle, boolean inclusive) {
+            int low = 0, high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < angle || (inclusive && starts[middle] == angle)) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        boolean isHidden(double angle) {
+            int index = countStartsBefore(angle, false) - 1;
+            return index >= 0 && ends[index] > angle;
+        }
+
+        void add(double start, double end) {
+            if (start >= end) return;
+
+            int first = countStartsBefore(start, true);
+            if (first > 0 && ends[first - 1] > start) {
+                if (ends[first - 1] >= end) return;
+                first -= 1;
+                start = starts[first];
+            }
+
+            int last = first;
+            while (last < size && starts[last] < end) {
+                end = max(end, ends[last]);
+                last += 1;
+            }
+
+            // Replace the intervals from first (inclusive) to last (exclusive) by 1 interval
+            int newSize = size - (last - first) + 1;
+            if (newSize > starts.length) {
+                starts = Arrays.copyOf(starts, 2 * starts.length);
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+            }
+            System.arraycopy(starts, last, starts, first + 1, size - last);
+            System.arraycopy(ends, last, ends, first + 1, size - last);
+            starts[first] = start;
+            ends[first] = end;
+            size = newSize;
+        }
+    }
+
+    /**
+     * @return A mutable copy of the current walls. Use snapshot() instead when a copy is not needed.
+     */
+    public Set<GridWall> copyWalls() {
+        return walls.toSet();
     }
 
     record WallView(double distance, double minAngle, double maxAngle) {}
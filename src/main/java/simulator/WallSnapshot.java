@@ -0,0 +1,288 @@
+package simulator;
+
+import planner.GridWall;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An immutable set of grid walls, stored as 2 bit planes: 1 for the walls along the X-axis, and 1 for the walls along
+ * the Y-axis. The bit of wall (gridX, gridY) is at index (gridY - minY) * width + (gridX - minX) of its plane. The
+ * WallGrid creates a new snapshot whenever a wall is added or removed, so readers can use a snapshot without locking.
+ * <p>
+ * Besides the bit planes, each snapshot has an append-only log of the walls that were added and removed, in the order
+ * in which that happened. The version of a snapshot is the length of this log, so consumers can remember the version
+ * that they processed last, and use forEachChangeSince to process only the changes that were made after that.
+ */
+public final class WallSnapshot implements Iterable<GridWall> {
+
+    static final WallSnapshot EMPTY = new WallSnapshot(
+            0, 0, 0, 0, new long[0], new long[0], new GridWall[0], new boolean[0], 0, 0
+    );
+
+    private final int minX, minY, width, height;
+    private final long[] xPlane, yPlane;
+
+    /**
+     * The walls that were added (logAdded[i] is true) or removed (logAdded[i] is false), in the order in which that
+     * happened. Only the first numChanges entries belong to this snapshot: newer snapshots may append changes to the
+     * same arrays, but they never modify the first numChanges entries.
+     */
+    private final GridWall[] log;
+    private final boolean[] logAdded;
+    private final int numChanges;
+    private final int size;
+
+    private WallSnapshot(
+            int minX, int minY, int width, int height, long[] xPlane, long[] yPlane,
+            GridWall[] log, boolean[] logAdded, int numChanges, int size
+    ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.xPlane = xPlane;
+        this.yPlane = yPlane;
+        this.log = log;
+        this.logAdded = logAdded;
+        this.numChanges = numChanges;
+        this.size = size;
+    }
+
+    private static void checkAxis(GridWall.Axis axis) {
+        if (axis != GridWall.Axis.X && axis != GridWall.Axis.Y) {
+            throw new IllegalArgumentException("Only walls along the X-axis or Y-axis can be stored, but got " + axis);
+        }
+    }
+
+    private boolean isInBounds(int gridX, int gridY) {
+        return gridX >= minX && gridY >= minY && gridX < minX + width && gridY < minY + height;
+    }
+
+    private static boolean get(long[] plane, int bitIndex) {
+        return (plane[bitIndex >> 6] & (1L << bitIndex)) != 0;
+    }
+
+    public boolean contains(int gridX, int gridY, GridWall.Axis axis) {
+        if (!isInBounds(gridX, gridY)) return false;
+        int bitIndex = (gridY - minY) * width + (gridX - minX);
+        if (axis == GridWall.Axis.X) return get(xPlane, bitIndex);
+        if (axis == GridWall.Axis.Y) return get(yPlane, bitIndex);
+        return false;
+    }
+
+    public boolean contains(GridWall wall) {
+        return contains(wall.gridX(), wall.gridY(), wall.axis());
+    }
+
+    /**
+     * @return The number of walls in this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of times that a wall was added to or removed from the WallGrid before this snapshot was
+     * taken. This only increases.
+     */
+    public long version() {
+        return numChanges;
+    }
+
+    /**
+     * Calls addAction for each wall that was added, and removeAction for each wall that was removed, after the snapshot
+     * with the given version was taken. The changes are processed in the order in which they happened, so applying
+     * them to the walls of the old snapshot gives the walls of this snapshot. This takes O(number of changes) time.
+     * @param version The version of an older snapshot, or 0 to process all changes
+     */
+    public void forEachChangeSince(
+            long version, Consumer<? super GridWall> addAction, Consumer<? super GridWall> removeAction
+    ) {
+        if (version < 0 || version > numChanges) {
+            throw new IllegalArgumentException("Version must be between 0 and " + numChanges + ", but is " + version);
+        }
+        for (int index = (int) version; index < numChanges; index++) {
+            if (logAdded[index]) addAction.accept(log[index]);
+            else removeAction.accept(log[index]);
+        }
+    }
+
+    /**
+     * Calls the action for each wall, in the same order as the iterator. This is a bit faster than using the iterator.
+     */
+    @Override
+    public void forEach(Consumer<? super GridWall> action) {
+        for (int wordIndex = 0; wordIndex < xPlane.length; wordIndex++) {
+            long combinedWord = xPlane[wordIndex] | yPlane[wordIndex];
+            while (combinedWord != 0) {
+                int bit = Long.numberOfTrailingZeros(combinedWord);
+                combinedWord &= combinedWord - 1;
+
+                int bitIndex = 64 * wordIndex + bit;
+                int gridX = minX + bitIndex % width;
+                int gridY = minY + bitIndex / width;
+                if ((xPlane[wordIndex] & (1L << bit)) != 0) action.accept(new GridWall(gridX, gridY, GridWall.Axis.X));
+                if ((yPlane[wordIndex] & (1L << bit)) != 0) action.accept(new GridWall(gridX, gridY, GridWall.Axis.Y));
+            }
+        }
+    }
+
+    /**
+     * Iterates over the walls, ordered by gridY, then gridX, then axis (X before Y)
+     */
+    @Override
+    public Iterator<GridWall> iterator() {
+        return new Iterator<>() {
+
+            /**
+             * The index of the next bit to check, where bit 2 * i is bit i of the X plane and bit 2 * i + 1 is bit i of
+             * the Y plane
+             */
+            int nextBit = findNext(0);
+
+            private int findNext(int bit) {
+                int numBits = 2 * width * height;
+                while (bit < numBits) {
+                    long[] plane = (bit & 1) == 0 ? xPlane : yPlane;
+                    if (get(plane, bit >> 1)) return bit;
+                    bit += 1;
+                }
+                return numBits;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextBit < 2 * width * height;
+            }
+
+            @Override
+            public GridWall next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int bitIndex = nextBit >> 1;
+                var axis = (nextBit & 1) == 0 ? GridWall.Axis.X : GridWall.Axis.Y;
+                nextBit = findNext(nextBit + 1);
+                return new GridWall(minX + bitIndex % width, minY + bitIndex / width, axis);
+            }
+        };
+    }
+
+    public Set<GridWall> toSet() {
+        var result = new HashSet<GridWall>(2 * size);
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * @return A snapshot that also contains the added walls, but not the removed walls, or this snapshot if nothing
+     * changes. The walls are added before the removed walls are removed.
+     */
+    WallSnapshot with(Collection<GridWall> addedWalls, Collection<GridWall> removedWalls) {
+        int numNewWalls = 0;
+        int newMinX = minX, newMinY = minY, newWidth = width, newHeight = height;
+        for (var wall : addedWalls) {
+            checkAxis(wall.axis());
+            if (contains(wall)) continue;
+            numNewWalls += 1;
+
+            if (newWidth == 0) {
+                // Start with a small area around the first wall
+                newMinX = wall.gridX() - 4;
+                newMinY = wall.gridY() - 4;
+                newWidth = 8;
+                newHeight = 8;
+            }
+
+            // When the wall is outside the bounds, grow at least by a factor 2 in that direction, so that adding walls
+            // in a growing maze only needs to grow a few times
+            if (wall.gridX() < newMinX) {
+                int extra = Math.max(newMinX - wall.gridX(), newWidth);
+                newMinX -= extra;
+                newWidth += extra;
+            }
+            if (wall.gridX() >= newMinX + newWidth) {
+                newWidth += Math.max(wall.gridX() - newMinX - newWidth + 1, newWidth);
+            }
+            if (wall.gridY() < newMinY) {
+                int extra = Math.max(newMinY - wall.gridY(), newHeight);
+                newMinY -= extra;
+                newHeight += extra;
+            }
+            if (wall.gridY() >= newMinY + newHeight) {
+                newHeight += Math.max(wall.gridY() - newMinY - newHeight + 1, newHeight);
+            }
+        }
+        if (numNewWalls == 0 && removedWalls.isEmpty()) return this;
+
+        long[] newXPlane, newYPlane;
+        if (newMinX == minX && newMinY == minY && newWidth == width && newHeight == height) {
+            newXPlane = xPlane.clone();
+            newYPlane = yPlane.clone();
+        } else {
+            int numWords = (newWidth * newHeight + 63) / 64;
+            newXPlane = new long[numWords];
+            newYPlane = new long[numWords];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int oldIndex = y * width + x;
+                    int newIndex = (y + minY - newMinY) * newWidth + (x + minX - newMinX);
+                    if (get(xPlane, oldIndex)) newXPlane[newIndex >> 6] |= 1L << newIndex;
+                    if (get(yPlane, oldIndex)) newYPlane[newIndex >> 6] |= 1L << newIndex;
+                }
+            }
+        }
+
+        // Duplicates must only be logged once. Since the WallGrid only calls this method on its latest snapshot (while
+        // holding its lock), the log entries after numChanges are not used by any other snapshot.
+        GridWall[] newLog = log;
+        boolean[] newLogAdded = logAdded;
+        int maxChanges = numChanges + numNewWalls + removedWalls.size();
+        if (maxChanges > log.length) {
+            newLog = Arrays.copyOf(log, Math.max(2 * log.length, maxChanges));
+            newLogAdded = Arrays.copyOf(logAdded, newLog.length);
+        }
+        int newNumChanges = numChanges;
+        int newSize = size;
+        for (var wall : addedWalls) {
+            int bitIndex = (wall.gridY() - newMinY) * newWidth + (wall.gridX() - newMinX);
+            long[] plane = wall.axis() == GridWall.Axis.X ? newXPlane : newYPlane;
+            if (!get(plane, bitIndex)) {
+                plane[bitIndex >> 6] |= 1L << bitIndex;
+                newLog[newNumChanges] = wall;
+                newLogAdded[newNumChanges] = true;
+                newNumChanges += 1;
+                newSize += 1;
+            }
+        }
+        for (var wall : removedWalls) {
+            int gridX = wall.gridX(), gridY = wall.gridY();
+            if (gridX < newMinX || gridY < newMinY || gridX >= newMinX + newWidth || gridY >= newMinY + newHeight) {
+                continue;
+            }
+            int bitIndex = (gridY - newMinY) * newWidth + (gridX - newMinX);
+            long[] plane = wall.axis() == GridWall.Axis.X ? newXPlane : newYPlane;
+            if (wall.axis() != GridWall.Axis.DUCKIE && get(plane, bitIndex)) {
+                plane[bitIndex >> 6] &= ~(1L << bitIndex);
+                newLog[newNumChanges] = wall;
+                newLogAdded[newNumChanges] = false;
+                newNumChanges += 1;
+                newSize -= 1;
+            }
+        }
+        if (newNumChanges == numChanges) return this;
+
+        return new WallSnapshot(
+                newMinX, newMinY, newWidth, newHeight, newXPlane, newYPlane,
+                newLog, newLogAdded, newNumChanges, newSize
+        );
+    }
+}
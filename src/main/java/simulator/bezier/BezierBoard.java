@@ -4,6 +4,7 @@ import controller.BezierController;
 import controller.desired.DesiredPose;
 import controller.desired.DesiredVelocity;
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 
 import javax.swing.*;
 import java.awt.*;
@@ -23,14 +24,14 @@ public class BezierBoard extends JPanel implements MouseListener, MouseMotionLis
 
     public BezierBoard(Supplier<Insets> insets) {
         this.insets = insets;
-        estimations.x = 0.15;
-        estimations.y = 0.75;
-        estimations.angle = 0.0;
+        estimations.pose.write(0.15, 0.75, 0.0);
     }
 
     @Override
     public void paint(Graphics graphics) {
         super.paint(graphics);
+        var pose = new EstimatedPose.Snapshot();
+        estimations.pose.read(pose);
         graphics.setColor(Color.BLACK);
         for (double d = 0.3; d < 0.91; d += 0.3) {
             graphics.drawLine(transformX(d), 0, transformX(d), getHeight());
@@ -39,21 +40,21 @@ public class BezierBoard extends JPanel implements MouseListener, MouseMotionLis
         {
             graphics.setColor(Color.YELLOW);
             int radius = 7;
-            graphics.fillOval(transformX(estimations.x) - radius, transformY(estimations.y) - radius, 2 * radius, 2 * radius);
+            graphics.fillOval(transformX(pose.x) - radius, transformY(pose.y) - radius, 2 * radius, 2 * radius);
 
             double angleLength = 0.04;
             graphics.setColor(Color.BLACK);
             graphics.drawLine(
-                    transformX(estimations.x), transformY(estimations.y),
-                    transformX(estimations.x + angleLength * cos(estimations.angle * 2 * PI)),
-                    transformY(estimations.y + angleLength * sin(estimations.angle * 2 * PI))
+                    transformX(pose.x), transformY(pose.y),
+                    transformX(pose.x + angleLength * cos(pose.angle * 2 * PI)),
+                    transformY(pose.y + angleLength * sin(pose.angle * 2 * PI))
             );
         }
 
         var testRoute = new LinkedList<DesiredPose>();
-        if (estimations.x < 0.32) testRoute.add(new DesiredPose(0.3, 0.75, 0.0, false));
-        if (estimations.x < 0.62) testRoute.add(new DesiredPose(0.6, 0.75, 0.0, false));
-        if (estimations.y > 0.58) testRoute.add(new DesiredPose(0.75, 0.6, 0.75, false));
+        if (pose.x < 0.32) testRoute.add(new DesiredPose(0.3, 0.75, 0.0, false));
+        if (pose.x < 0.62) testRoute.add(new DesiredPose(0.6, 0.75, 0.0, false));
+        if (pose.y > 0.58) testRoute.add(new DesiredPose(0.75, 0.6, 0.75, false));
         testRoute.add(new DesiredPose(0.75, 0.3, 0.75, false));
 
         var desiredVelocity = new DesiredVelocity();
@@ -69,9 +70,9 @@ public class BezierBoard extends JPanel implements MouseListener, MouseMotionLis
             graphics.setColor(new Color(0, 200, 0));
             double angleLength = 0.04;
             graphics.drawLine(
-                    transformX(estimations.x), transformY(estimations.y),
-                    transformX(estimations.x + angleLength * cos(desiredVelocity.angle * 2 * PI)),
-                    transformY(estimations.y + angleLength * sin(desiredVelocity.angle * 2 * PI))
+                    transformX(pose.x), transformY(pose.y),
+                    transformX(pose.x + angleLength * cos(desiredVelocity.angle * 2 * PI)),
+                    transformY(pose.y + angleLength * sin(desiredVelocity.angle * 2 * PI))
             );
         }
 
@@ -134,13 +135,14 @@ public class BezierBoard extends JPanel implements MouseListener, MouseMotionLis
     private void handleClick(int x, int y, int button) {
         double realX = transformReverseX(x - insets.get().left);
         double realY = transformReverseY(y - insets.get().top);
+        var pose = new EstimatedPose.Snapshot();
+        estimations.pose.read(pose);
         if (button == 1) {
-            estimations.x = realX;
-            estimations.y = realY;
+            estimations.pose.write(realX, realY, pose.angle);
         } else {
-            double dx = realX - estimations.x;
-            double dy = realY - estimations.y;
-            if (abs(dx) + abs(dy) > 0.01) estimations.angle = atan2(dy, dx) / (2 * PI);
+            double dx = realX - pose.x;
+            double dy = realY - pose.y;
+            if (abs(dx) + abs(dy) > 0.01) estimations.pose.write(pose.x, pose.y, atan2(dy, dx) / (2 * PI));
         }
         repaint();
     }
@@ -3,6 +3,7 @@ package simulator.ui;
 import controller.desired.DesiredVelocity;
 import controller.estimation.DuckieEstimations;
 import controller.parameters.PIDParameters;
+import controller.updater.ExecutionGroup;
 import state.DuckieControls;
 import state.DuckieState;
 
@@ -10,12 +11,14 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.DoubleSupplier;
 
 public class MonitorBoard extends JPanel {
 
     private final Collection<GraphSequence> graphSequences = new ArrayList<>();
     private final DuckieEstimations estimations;
+    private final List<ExecutionGroup> executionGroups;
 
     private DuckieState.WheelEncoderEntry initialLeftTicks, initialRightTicks;
 
@@ -23,9 +26,10 @@ public class MonitorBoard extends JPanel {
 
     public MonitorBoard(
             DuckieState trackedState, DuckieControls controls, DuckieEstimations estimations,
-            DesiredVelocity desiredVelocity, PIDParameters pid
+            DesiredVelocity desiredVelocity, PIDParameters pid, List<ExecutionGroup> executionGroups
     ) {
         this.estimations = estimations;
+        this.executionGroups = executionGroups;
         graphSequences.add(new GraphSequence("Time of Flight", new Color(200, 50, 250), () -> trackedState.tof));
         graphSequences.add(new GraphSequence("Left control input", new Color(200, 150, 0), () -> controls.velLeft));
         graphSequences.add(new GraphSequence("Right control input", new Color(250, 190, 20), () -> controls.velRight));
@@ -34,7 +38,7 @@ public class MonitorBoard extends JPanel {
         graphSequences.add(new GraphSequence("Left control output", new Color(200, 0, 0), () -> trackedState.leftWheelControl));
         graphSequences.add(new GraphSequence("Right control output", new Color(250, 0, 20), () -> trackedState.rightWheelControl));
         graphSequences.add(new GraphSequence("Left wheel ticks", new Color(0, 200, 10), () -> {
-            var leftTicks = trackedState.leftWheelEncoder;
+            var leftTicks = trackedState.leftWheelEncoder.get();
             if (leftTicks != null) {
                 if (initialLeftTicks == null) initialLeftTicks = leftTicks;
                 else return (leftTicks.value() - initialLeftTicks.value()) * 0.002;
@@ -42,7 +46,7 @@ public class MonitorBoard extends JPanel {
             return 0.0;
         }));
         graphSequences.add(new GraphSequence("Right wheel ticks", new Color(0, 250, 30), () -> {
-            var rightTicks = trackedState.rightWheelEncoder;
+            var rightTicks = trackedState.rightWheelEncoder.get();
             if (rightTicks != null) {
                 if (initialRightTicks == null) initialRightTicks = rightTicks;
                 else return (rightTicks.value() - initialRightTicks.value()) * 0.002;
@@ -139,6 +143,23 @@ public class MonitorBoard extends JPanel {
             }
         }
 
+        // Show the timing statistics of all controllers, and highlight the ones that exceed their budget
+        int statisticsY = GRAPH_HEIGHT + 20;
+        for (var group : executionGroups) {
+            var updater = group.updater;
+            graphics.setColor(updater.getOverrunCount() > 0 ? Color.RED : Color.BLACK);
+            graphics.drawString(String.format(
+                    "%s: %d ticks, %d overruns, %d skipped, max jitter %.3fms", group.name, updater.getTickCount(),
+                    updater.getOverrunCount(), updater.getSkippedTickCount(), updater.getMaxJitter() * 1e3
+            ), 10, statisticsY);
+            statisticsY += 15;
+            for (var statistics : updater.getStatistics()) {
+                graphics.setColor(statistics.isOverBudget() ? Color.RED : Color.DARK_GRAY);
+                graphics.drawString(statistics.toString(), 20, statisticsY);
+                statisticsY += 15;
+            }
+        }
+
         Toolkit.getDefaultToolkit().sync();
     }
 
@@ -3,6 +3,7 @@ package simulator.ui;
 import controller.desired.DesiredPose;
 import controller.desired.DesiredVelocity;
 import controller.estimation.DuckieEstimations;
+import controller.estimation.EstimatedPose;
 import planner.GridWall;
 import simulator.WallGrid;
 import state.DuckiePose;
@@ -12,6 +13,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Queue;
 
 import static controller.desired.DesiredPose.*;
@@ -44,9 +47,18 @@ public class SimulatorBoard extends JPanel {
         this.trackedState = trackedState;
     }
 
+    private final EstimatedPose.Snapshot pose = new EstimatedPose.Snapshot();
     private final java.util.List<Point2D.Double> estimatedVisitedPoints = new ArrayList<>();
     private final java.util.List<Point2D.Double> realVisitedPoints = new ArrayList<>();
 
+    private record WallToDraw(GridWall wall, Color color) {}
+
+    /**
+     * The estimated walls at estimatedWallVersion, and their colors
+     */
+    private final Map<GridWall, WallToDraw> estimatedWallsToDraw = new LinkedHashMap<>();
+    private long estimatedWallVersion = 0;
+
     private int offsetX() {
         return getWidth() / 2;
     }
@@ -79,10 +91,11 @@ public class SimulatorBoard extends JPanel {
         graphics.drawLine(0, offsetY(), getWidth(), offsetY());
         graphics.drawLine(offsetX(), 0, offsetX(), getHeight());
 
-        synchronized (estimations) {
-            double x = estimations.x;
-            double y = estimations.y;
-            double angle = estimations.angle * 2 * PI;
+        estimations.pose.read(pose);
+        {
+            double x = pose.x;
+            double y = pose.y;
+            double angle = pose.angle * 2 * PI;
 
             double cosAngle = cos(angle);
             double sinAngle = sin(angle);
@@ -118,10 +131,10 @@ public class SimulatorBoard extends JPanel {
 
             graphics.setColor(Color.YELLOW);
             graphics.drawLine(
-                    transformRealX(estimations.x),
-                    transformRealY(estimations.y),
-                    transformRealX(estimations.x + 0.1 * cos(desiredVelocity.angle * 2.0 * PI)),
-                    transformRealY(estimations.y + 0.1 * sin(desiredVelocity.angle * 2.0 * PI))
+                    transformRealX(pose.x),
+                    transformRealY(pose.y),
+                    transformRealX(pose.x + 0.1 * cos(desiredVelocity.angle * 2.0 * PI)),
+                    transformRealY(pose.y + 0.1 * sin(desiredVelocity.angle * 2.0 * PI))
             );
 
             var duckie = estimations.duckie;
@@ -141,10 +154,10 @@ public class SimulatorBoard extends JPanel {
             var cameraWalls = trackedState.cameraWalls;
             if (cameraWalls != null) {
                 for (var wall : cameraWalls.walls()) {
-                    double cameraAngleRad = estimations.angle * 2 * PI;
-                    double wallAngleRad = (estimations.angle + wall.angle()) * 2 * PI;
-                    double wallX = estimations.x + CAMERA_OFFSET * cos(cameraAngleRad) + wall.distance() * cos(wallAngleRad);
-                    double wallY = estimations.y + CAMERA_OFFSET * sin(cameraAngleRad) + wall.distance() * sin(wallAngleRad);
+                    double cameraAngleRad = pose.angle * 2 * PI;
+                    double wallAngleRad = (pose.angle + wall.angle()) * 2 * PI;
+                    double wallX = pose.x + CAMERA_OFFSET * cos(cameraAngleRad) + wall.distance() * cos(wallAngleRad);
+                    double wallY = pose.y + CAMERA_OFFSET * sin(cameraAngleRad) + wall.distance() * sin(wallAngleRad);
                     int wallRadius = 7;
                     graphics.fillOval(
                             transformRealX(wallX) - wallRadius,
@@ -169,7 +182,7 @@ public class SimulatorBoard extends JPanel {
         for (var point : estimatedVisitedPoints) {
             graphics.fillOval(transformRealX(point.x) - radius, transformRealY(point.y) - radius, 2 * radius, 2 * radius);
         }
-        var newPoint = new Point2D.Double(estimations.x, estimations.y);
+        var newPoint = new Point2D.Double(pose.x, pose.y);
         if (!estimatedVisitedPoints.contains(newPoint)) estimatedVisitedPoints.add(newPoint);
 
         radius = 5;
@@ -193,25 +206,21 @@ public class SimulatorBoard extends JPanel {
             );
         }
 
-        record WallToDraw(GridWall wall, Color color) {}
         var wallsToDraw = new ArrayList<WallToDraw>();
-
         if (this.realWalls != null) {
-            var realWalls = this.realWalls.copyWalls();
-            var estimatedWalls = estimations.walls.copyWalls();
-            for (var wall : realWalls) {
-                if (estimatedWalls.contains(wall)) wallsToDraw.add(new WallToDraw(wall, Color.GREEN));
-                else wallsToDraw.add(new WallToDraw(wall, Color.BLACK));
-            }
-            for (var wall : estimatedWalls) {
-                if (!realWalls.contains(wall)) wallsToDraw.add(new WallToDraw(wall, Color.RED));
-            }
-        } else {
-            for (var wall : estimations.walls.copyWalls()) {
-                wallsToDraw.add(new WallToDraw(wall, Color.BLACK));
-            }
+            for (var wall : this.realWalls.snapshot()) wallsToDraw.add(new WallToDraw(wall, Color.BLACK));
         }
 
+        // The estimated walls are drawn on top of the real walls
+        var estimatedWalls = estimations.walls.snapshot();
+        estimatedWalls.forEachChangeSince(estimatedWallVersion, wall -> {
+            Color color = Color.BLACK;
+            if (realWalls != null) color = realWalls.contains(wall) ? Color.GREEN : Color.RED;
+            estimatedWallsToDraw.put(wall, new WallToDraw(wall, color));
+        }, estimatedWallsToDraw::remove);
+        estimatedWallVersion = estimatedWalls.version();
+        wallsToDraw.addAll(estimatedWallsToDraw.values());
+
         for (var wall : wallsToDraw) {
             int x = transformRealX(GRID_SIZE * wall.wall.gridX());
             int y = transformRealY(GRID_SIZE * wall.wall.gridY());
@@ -10,7 +10,7 @@ import controller.estimation.PoseEstimator;
 import controller.estimation.SpeedEstimator;
 import controller.parameters.DuckieParameters;
 import controller.updater.ControllerFunction;
-import controller.updater.ControllerUpdater;
+import controller.updater.ExecutionGroup;
 import joystick.client.JoystickClientConnection;
 import planner.GridPosition;
 import planner.KeyboardPlanner;
@@ -27,8 +27,11 @@ import javax.swing.*;
 
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.LongSupplier;
 
+import static controller.updater.DataDependencies.reads;
 import static controller.util.DuckieBot.GRID_SIZE;
 import static java.lang.Thread.sleep;
 
@@ -43,6 +46,7 @@ public class SimulatorUI {
 
     public static void main(String[] args) {
         boolean useDuckiebot = Arrays.stream(args).anyMatch(arg -> arg.contains("duckie"));
+        boolean printTimings = Arrays.stream(args).anyMatch(arg -> arg.contains("print-timings"));
         Mode mode = Mode.KEY_PLANNER;
         if (Arrays.stream(args).anyMatch(arg -> arg.contains("key-controller"))) mode = Mode.KEY_CONTROLLER;
         if (Arrays.stream(args).anyMatch(arg -> arg.contains("step-controller"))) mode = Mode.STEP_CONTROLLER;
@@ -56,11 +60,15 @@ public class SimulatorUI {
         WallGrid realWalls = null;
         DuckiePose realPose = null;
 
+        // The clock of the wheel encoders
+        LongSupplier clock;
+
         if (useDuckiebot) {
             estimations = new DuckieEstimations();
             controls = new DuckieControls();
             trackedState = new DuckieState();
             updateFunction = deltaTime -> {};
+            clock = System::nanoTime;
 
             var connection = new JoystickClientConnection(
                     "db4.local", trackedState,
@@ -78,6 +86,7 @@ public class SimulatorUI {
             controls = simulator.controls;
             trackedState = simulator.trackedState;
             updateFunction = simulator;
+            clock = simulator::nanoTime;
             realWalls = simulator.walls;
             realPose = simulator.realPose;
         }
@@ -119,42 +128,59 @@ public class SimulatorUI {
 //        });
 
         var leftSpeedEstimator = new SpeedEstimator(
-                () -> trackedState.leftWheelEncoder, newSpeed -> estimations.leftSpeed = newSpeed
+                trackedState.leftWheelEncoder, newSpeed -> estimations.leftSpeed = newSpeed, clock
         );
         var rightSpeedEstimator = new SpeedEstimator(
-                () -> trackedState.rightWheelEncoder, newSpeed -> estimations.rightSpeed = newSpeed
+                trackedState.rightWheelEncoder, newSpeed -> estimations.rightSpeed = newSpeed, clock
         );
 
 //        var averageSpeedEstimator = new SpeedPredictor(() -> {
 //            var leftTicks = trackedState.leftWheelEncoder;
 //            var rightTicks = trackedState.rightWheelEncoder;
-//            if (leftTicks != null && rightTicks != null) return (leftTicks.value() + rightTicks.value()) * 0.5;
+//            if (!leftTicks.isEmpty() && !rightTicks.isEmpty()) return (leftTicks.value() + rightTicks.value()) * 0.5;
 //            else return Double.NaN;
 //        }, newPoly -> estimations.distancePolynomial = newPoly);
 
-        var updater = new ControllerUpdater();
+        // The motor group uses 2 worker threads to update independent controllers in parallel, unless this machine
+        // has few cores. The slow perception and planning controllers get their own groups, so they can't stall it.
+        var motorGroup = new ExecutionGroup(
+                "motor", 1000, Thread.MAX_PRIORITY, Runtime.getRuntime().availableProcessors() > 2 ? 2 : 0
+        );
+        var perceptionGroup = new ExecutionGroup("perception", 100, Thread.NORM_PRIORITY);
+        var planningGroup = new ExecutionGroup("planning", 100, Thread.NORM_PRIORITY);
+        var updater = motorGroup.updater;
 
-        updater.addController(updateFunction, 1);
-        if (mode == Mode.KEY_PLANNER || mode == Mode.AUTOMATIC_PLANNER) updater.addController(bezierRouteController, 1);
+        // The encoder listener of the PoseEstimator runs during the simulator update, so it also writes the pose
+        updater.addController(updateFunction, 1, reads("controls").andWrites("encoders", "camera", "pose"));
+        if (mode == Mode.KEY_PLANNER || mode == Mode.AUTOMATIC_PLANNER) {
+            updater.addController(bezierRouteController, 1, reads("pose", "route").andWrites("desiredVelocity"));
+        }
         if (mode == Mode.STEP_CONTROLLER) updater.addController(stepRouteController, 1);
         if (mode == Mode.KEY_CONTROLLER) updater.addController(keyboardRouteController, 1);
-        updater.addController(directSpeedController, 1);
-        updater.addController(differentialDriver, 1);
-        updater.addController(leftSpeedEstimator, 1);
-        updater.addController(rightSpeedEstimator, 1);
+        updater.addController(directSpeedController, 1, reads(
+                "desiredVelocity", "leftSpeed", "rightSpeed"
+        ).andWrites("desiredWheelSpeed"));
+        updater.addController(differentialDriver, 1, reads(
+                "desiredVelocity", "desiredWheelSpeed", "pose"
+        ).andWrites("controls"));
+        updater.addController(leftSpeedEstimator, 1, reads("encoders").andWrites("leftSpeed"));
+        updater.addController(rightSpeedEstimator, 1, reads("encoders").andWrites("rightSpeed"));
         //updater.addController(averageSpeedEstimator, 1);
-        if (mode == Mode.AUTOMATIC_PLANNER) updater.addController(mazePlanner, 10);
+        if (mode == Mode.AUTOMATIC_PLANNER) planningGroup.updater.addController(mazePlanner, 1);
 
-        var wallUpdater = new ControllerUpdater();
-        wallUpdater.addController(new WallMapper(estimations, trackedState, 0.02, 0.0), 1);
+        perceptionGroup.updater.addController(new WallMapper(estimations, trackedState, 0.02, 0.0), 1);
+        trackedState.addEncoderListener(() -> poseEstimator.update(0.0));
+        var executionGroups = List.of(motorGroup, perceptionGroup, planningGroup);
 
         var monitorFrame = new JFrame();
-        monitorFrame.setSize(800, 500);
+        monitorFrame.setSize(1000, 700);
         monitorFrame.setAutoRequestFocus(false);
         monitorFrame.setLocation(1200, 200);
         monitorFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         var pid = parameters.anglePID;
-        monitorFrame.add(new MonitorBoard(trackedState, controls, estimations, desiredVelocity, pid));
+        monitorFrame.add(new MonitorBoard(
+                trackedState, controls, estimations, desiredVelocity, pid, executionGroups
+        ));
         monitorFrame.addKeyListener(new PIDKeyboardTuner(pid));
         monitorFrame.setVisible(true);
 
@@ -168,21 +194,23 @@ public class SimulatorUI {
         }
         simulatorFrame.setVisible(true);
 
-        Thread updateThread = new Thread(updater::start);
-        updateThread.setDaemon(true);
-        updateThread.start();
-
-        Thread wallThread = new Thread(wallUpdater::start);
-        wallThread.setDaemon(true);
-        wallThread.start();
-
-        Thread poseThread = new Thread(() -> {
-            while (true) {
-                poseEstimator.update(0.0);
-            }
-        });
-        poseThread.setDaemon(true);
-        poseThread.start();
+        for (var group : executionGroups) group.start();
+
+        if (printTimings) {
+            Thread timingThread = new Thread(() -> {
+                try {
+                    while (true) {
+                        //noinspection BusyWait
+                        sleep(5000);
+                        for (var group : executionGroups) group.printStatistics(System.out);
+                    }
+                } catch (InterruptedException shouldNotHappen) {
+                    throw new Error(shouldNotHappen);
+                }
+            });
+            timingThread.setDaemon(true);
+            timingThread.start();
+        }
 
         Thread repaintThread = new Thread(() -> {
             try {
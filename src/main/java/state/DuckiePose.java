@@ -4,14 +4,20 @@ import static controller.util.DuckieBot.GRID_SIZE;
 
 public class DuckiePose {
 
+    /**
+     * The position (in meters) at which the duckiebot starts, which is a little to the right of the center of the first
+     * grid cell
+     */
+    public static final double START_X = 0.5 * GRID_SIZE + 0.03, START_Y = 0.5 * GRID_SIZE;
+
     /**
      * x-coordinate relative to the origin (starting point), in meters
      */
-    public volatile double x = 0.5 * GRID_SIZE + 0.03;
+    public volatile double x = START_X;
     /**
      * y-coordinate relative to the origin (starting point), in meters
      */
-    public volatile double y = 0.5 * GRID_SIZE;
+    public volatile double y = START_Y;
     /**
      * velocity in the x-direction, in meters per second
      */
@@ -3,14 +3,42 @@ package state;
 import camera.CameraWalls;
 import camera.RelativeWall;
 
+import java.util.Arrays;
+
 public class DuckieState {
 
-    public volatile WheelEncoderEntry leftWheelEncoder, rightWheelEncoder;
+    public final EncoderSlot leftWheelEncoder = new EncoderSlot(), rightWheelEncoder = new EncoderSlot();
     public volatile double leftWheelControl, rightWheelControl;
     public volatile double tof;
     public volatile CameraWalls cameraWalls;
     public volatile DuckiePosition duckie;
 
+    /**
+     * The listeners are replaced by a new array when a listener is added, so that notifying them doesn't need to lock
+     * or allocate an iterator
+     */
+    private volatile Runnable[] encoderListeners = new Runnable[0];
+
+    /**
+     * Registers a listener that will be called (on the thread of the producer) whenever a new wheel encoder value
+     * arrives. The listener should be fast, since it delays the producer.
+     */
+    public synchronized void addEncoderListener(Runnable listener) {
+        var newListeners = Arrays.copyOf(encoderListeners, encoderListeners.length + 1);
+        newListeners[encoderListeners.length] = listener;
+        encoderListeners = newListeners;
+    }
+
+    /**
+     * This should be called by the producer after it has written to leftWheelEncoder and/or rightWheelEncoder
+     */
+    public void notifyEncoderListeners() {
+        for (var listener : encoderListeners) listener.run();
+    }
+
+    /**
+     * The old representation of wheel encoder values, which is still used by {@link EncoderSlot#get()}
+     */
     public record WheelEncoderEntry(long timestamp, int value) {}
     public record DuckiePosition(long timestamp, RelativeWall position) {}
 }
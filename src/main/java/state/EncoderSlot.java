@@ -0,0 +1,95 @@
+package state;
+
+/**
+ * Holds the latest value of 1 wheel encoder, without allocating memory for each new value. This is a sequence lock:
+ * the writer makes the sequence number odd while it is changing the timestamp and ticks, and even again once it is
+ * done. Readers retry until they read the same even sequence number before and after reading the values, so they never
+ * see a timestamp and ticks from different samples. There must be at most 1 writer thread per slot.
+ */
+public class EncoderSlot {
+
+    /**
+     * 0 when nothing has been written yet, odd while a value is being written, and even otherwise. It is incremented
+     * by 2 for each new value, so readers can also use it to detect new values.
+     */
+    private volatile long sequence;
+    private volatile long timestamp;
+    private volatile int ticks;
+
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    public void write(long timestamp, int ticks) {
+        sequence += 1;
+        this.timestamp = timestamp;
+        this.ticks = ticks;
+        sequence += 1;
+    }
+
+    public void write(DuckieState.WheelEncoderEntry entry) {
+        write(entry.timestamp(), entry.value());
+    }
+
+    /**
+     * Reads the latest timestamp and ticks into the given sample, and returns its sequence number. The sequence number
+     * will be 0 when nothing has been written yet.
+     */
+    public long read(Sample sample) {
+        while (true) {
+            long sequenceBefore = sequence;
+            if ((sequenceBefore & 1) == 0) {
+                long currentTimestamp = timestamp;
+                int currentTicks = ticks;
+                if (sequence == sequenceBefore) {
+                    sample.sequence = sequenceBefore;
+                    sample.timestamp = currentTimestamp;
+                    sample.ticks = currentTicks;
+                    return sequenceBefore;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public boolean isEmpty() {
+        return sequence == 0;
+    }
+
+    /**
+     * @return The latest number of ticks (or 0 when nothing has been written yet)
+     */
+    public int value() {
+        return ticks;
+    }
+
+    /**
+     * @return The latest timestamp (or 0 when nothing has been written yet)
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Adapter for code that still uses the old record API. Note that this allocates a new record for each call.
+     * @return The latest value of this slot, or null when nothing has been written yet
+     */
+    public DuckieState.WheelEncoderEntry get() {
+        var sample = new Sample();
+        if (read(sample) == 0) return null;
+        return new DuckieState.WheelEncoderEntry(sample.timestamp, sample.ticks);
+    }
+
+    /**
+     * A reusable container for values read from an EncoderSlot
+     */
+    public static class Sample {
+
+        public long sequence;
+        public long timestamp;
+        public int ticks;
+
+        public void set(Sample other) {
+            this.sequence = other.sequence;
+            this.timestamp = other.timestamp;
+            this.ticks = other.ticks;
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class TestAbsoluteWall {
     private void testSnap(AbsoluteWall wall, double expectedError, GridWall expectedWall) {
         var actual = wall.snap();
         assertEquals(expectedError, actual.error(), 0.001);
+        assertEquals(actual.error(), AbsoluteWall.snapError(wall.x(), wall.y()));
         if (expectedWall != null) assertEquals(expectedWall, actual.wall());
     }
 
@@ -0,0 +1,116 @@
+package camera;
+
+import org.junit.Test;
+import planner.GridWall;
+import simulator.WallGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static controller.util.DuckieBot.GRID_SIZE;
+import static junit.framework.TestCase.*;
+
+public class TestWallOccupancyMap {
+
+    @Test
+    public void testEvidenceAccumulation() {
+        var view = new WallGrid();
+        var map = new WallOccupancyMap(view);
+        var wall = new GridWall(-3, 2, GridWall.Axis.X);
+        var phantom = new GridWall(40, -25, GridWall.Axis.Y);
+
+        // A single hit must not be enough
+        map.update(List.of(wall, phantom), List.of());
+        assertFalse(view.contains(wall));
+        assertFalse(view.contains(phantom));
+        assertEquals(0.7, map.getLogOdds(wall), 1e-6);
+
+        map.update(List.of(wall), List.of(phantom));
+        assertTrue(view.contains(wall));
+        assertFalse(view.contains(phantom));
+        assertEquals(0.2, map.getLogOdds(phantom), 1e-6);
+
+        // The log-odds are clamped, so 3 misses should remove a wall that was seen many times
+        for (int counter = 0; counter < 10; counter++) map.update(List.of(wall), List.of());
+        assertEquals(2.0, map.getLogOdds(wall), 1e-6);
+        map.update(List.of(), List.of(wall));
+        map.update(List.of(), List.of(wall));
+        assertTrue(view.contains(wall));
+        map.update(List.of(), List.of(wall));
+        assertFalse(view.contains(wall));
+
+        // Walls that are both hit and missed count as hits
+        map.update(List.of(wall), List.of(wall));
+        assertEquals(1.2, map.getLogOdds(wall), 1e-6);
+        assertTrue(view.contains(wall));
+        assertEquals(0.0, map.getLogOdds(new GridWall(100, 100, GridWall.Axis.X)));
+    }
+
+    @Test
+    public void testDuplicateHitsCountOnce() {
+        var view = new WallGrid();
+        var map = new WallOccupancyMap(view);
+        var wall = new GridWall(1, 1, GridWall.Axis.Y);
+        map.update(List.of(wall, wall), List.of());
+        assertEquals(0.7, map.getLogOdds(wall), 1e-6);
+        assertFalse(view.contains(wall));
+
+        map.update(List.of(wall), List.of());
+        map.update(List.of(), List.of(wall, wall));
+        assertEquals(0.9, map.getLogOdds(wall), 1e-6);
+        assertFalse(view.contains(wall));
+    }
+
+    @Test
+    public void testExpectedWallsIncludeUnpublishedWalls() {
+        var view = new WallGrid();
+        var map = new WallOccupancyMap(view);
+        var nearWall = new GridWall(2, -1, GridWall.Axis.Y);
+        var hiddenWall = new GridWall(3, -1, GridWall.Axis.Y);
+        var phantom = new GridWall(2, 3, GridWall.Axis.Y);
+
+        // The phantom wall is seen only once, so it isn't published
+        map.update(List.of(nearWall, hiddenWall, phantom), List.of());
+        map.update(List.of(nearWall, hiddenWall), List.of());
+        assertFalse(view.contains(phantom));
+
+        // Looking along the X-axis, the near wall hides the wall behind it, and the phantom wall is out of view
+        var camera = new WallSnapper.FixedPose(0.0, -0.5 * GRID_SIZE, 0.0);
+        assertEquals(List.of(nearWall), map.findExpectedWalls(camera, 10.0));
+        assertEquals(List.of(), map.findExpectedWalls(camera, GRID_SIZE));
+
+        // Looking at the phantom wall, it should be expected, so the next miss counts against it
+        var phantomCamera = new WallSnapper.FixedPose(0.0, 3.5 * GRID_SIZE, 0.0);
+        var misses = map.findExpectedWalls(phantomCamera, 10.0);
+        assertEquals(List.of(phantom), misses);
+        map.update(List.of(), misses);
+        assertEquals(0.2, map.getLogOdds(phantom), 1e-6);
+
+        // Once its log-odds are no longer positive, the phantom wall is no longer expected
+        map.update(List.of(), phantomCamera, 10.0);
+        assertEquals(-0.3, map.getLogOdds(phantom), 1e-6);
+        assertEquals(List.of(), map.findExpectedWalls(phantomCamera, 10.0));
+
+        // Walls that were seen are not missed, and the walls that they hide aren't missed either
+        map.update(List.of(nearWall), camera, 10.0);
+        assertEquals(2.0, map.getLogOdds(nearWall), 1e-6);
+        assertEquals(1.4, map.getLogOdds(hiddenWall), 1e-6);
+    }
+
+    @Test
+    public void testViewPublishesRemovals() {
+        var view = new WallGrid();
+        var map = new WallOccupancyMap(view, 1.0, 1.0, -1.0, 1.0, 1.0);
+        var walls = List.of(new GridWall(0, 0, GridWall.Axis.X), new GridWall(0, 0, GridWall.Axis.Y));
+        map.update(walls, List.of());
+        long version = view.snapshot().version();
+        map.update(List.of(), List.of(walls.get(1)));
+
+        var added = new ArrayList<GridWall>();
+        var removed = new ArrayList<GridWall>();
+        view.snapshot().forEachChangeSince(version, added::add, removed::add);
+        assertEquals(List.of(), added);
+        assertEquals(List.of(walls.get(1)), removed);
+        assertEquals(1, view.snapshot().size());
+    }
+}
@@ -2,10 +2,14 @@ package camera;
 
 import org.junit.Test;
 import planner.GridWall;
+import simulator.SimulatorMaze;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static controller.util.DuckieBot.GRID_SIZE;
 import static junit.framework.TestCase.assertEquals;
@@ -84,5 +88,68 @@ public class TestWallSnapper {
         ), upResult.walls());
     }
 
+    private record Scene(List<RelativeWall> walls, WallSnapper.FixedPose estimatedCamera) {}
+
+    /**
+     * Creates scenes with random camera poses in the testing maze, and estimated poses that are slightly off
+     */
+    private static List<Scene> randomScenes(int numScenes, long seed) {
+        var grid = SimulatorMaze.createTestingWallGrid5x5();
+        var random = new Random(seed);
+        var scenes = new ArrayList<Scene>(numScenes);
+        while (scenes.size() < numScenes) {
+            var realCamera = new WallSnapper.FixedPose(
+                    (0.2 + 4.6 * random.nextDouble()) * GRID_SIZE,
+                    (0.2 + 4.6 * random.nextDouble()) * GRID_SIZE,
+                    random.nextDouble()
+            );
+            var walls = new ArrayList<RelativeWall>();
+            for (var wall : grid.findVisibleWalls(realCamera)) walls.add(RelativeWall.fromGrid(wall, realCamera));
+            if (walls.size() < 2) continue;
+
+            scenes.add(new Scene(walls, new WallSnapper.FixedPose(
+                    realCamera.x() + 0.015 * GRID_SIZE * (2 * random.nextDouble() - 1),
+                    realCamera.y() + 0.015 * GRID_SIZE * (2 * random.nextDouble() - 1),
+                    realCamera.angle() + 0.015 * (2 * random.nextDouble() - 1)
+            )));
+        }
+        return scenes;
+    }
+
+    @Test
+    public void testCoarseToFineMatchesExhaustive() {
+        for (var scene : randomScenes(50, 1234)) {
+            var exhaustive = new WallSnapper(scene.walls, scene.estimatedCamera, SnapSearchStrategy.EXHAUSTIVE).snap(
+                    0.02, 33, 0.02 * GRID_SIZE, 33, null
+            );
+            var coarseToFine = new WallSnapper(
+                    scene.walls, scene.estimatedCamera, SnapSearchStrategy.COARSE_TO_FINE
+            ).snap(0.02, 33, 0.02 * GRID_SIZE, 33, null);
+            assertEquals(exhaustive.error(), coarseToFine.error(), 1e-3);
+            assertEquals(exhaustive.correctedPose().x(), coarseToFine.correctedPose().x(), 0.005 * GRID_SIZE);
+            assertEquals(exhaustive.correctedPose().y(), coarseToFine.correctedPose().y(), 0.005 * GRID_SIZE);
+            assertEquals(exhaustive.correctedPose().angle(), coarseToFine.correctedPose().angle(), 0.005);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesExhaustive() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var parallel = SnapSearchStrategy.parallelExhaustive(pool);
+            for (var scene : randomScenes(10, 5678)) {
+                var expected = new WallSnapper(scene.walls, scene.estimatedCamera, SnapSearchStrategy.EXHAUSTIVE).snap(
+                        0.02, 33, 0.02 * GRID_SIZE, 33, null
+                );
+                var actual = new WallSnapper(scene.walls, scene.estimatedCamera, parallel).snap(
+                        0.02, 33, 0.02 * GRID_SIZE, 33, null
+                );
+                assertEquals(expected, actual);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     // TODO Test with angles
 }
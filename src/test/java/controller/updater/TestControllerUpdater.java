@@ -0,0 +1,53 @@
+package controller.updater;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static junit.framework.TestCase.*;
+
+public class TestControllerUpdater {
+
+    @Test
+    public void testAdvanceToVirtualTime() {
+        var updater = new ControllerUpdater(1_000_000, 0);
+        var fastDeltaTimes = new ArrayList<Double>();
+        var slowDeltaTimes = new ArrayList<Double>();
+        updater.addController(fastDeltaTimes::add, 1);
+        updater.addController(slowDeltaTimes::add, 4);
+
+        updater.advanceTo(10_500_000);
+        assertEquals(10, fastDeltaTimes.size());
+        assertEquals(2, slowDeltaTimes.size());
+        for (double deltaTime : fastDeltaTimes) assertEquals(0.001, deltaTime, 1e-12);
+        for (double deltaTime : slowDeltaTimes) assertEquals(0.004, deltaTime, 1e-12);
+
+        // Advancing to an earlier time shouldn't do anything
+        updater.advanceTo(5_000_000);
+        assertEquals(10, fastDeltaTimes.size());
+
+        updater.advanceTo(12_000_000);
+        assertEquals(12, fastDeltaTimes.size());
+        assertEquals(3, slowDeltaTimes.size());
+        assertEquals(12, updater.getTickCount());
+
+        try {
+            updater.start();
+            fail("start() should refuse to run an updater that is used in virtual time");
+        } catch (IllegalStateException expected) {
+            // This is expected
+        }
+    }
+
+    @Test
+    public void testStatisticsKeepLastExecutionTimes() {
+        var statistics = new ControllerStatistics("test", 2000);
+        for (long executionTime = 1; executionTime <= 3000; executionTime++) statistics.record(executionTime, false);
+
+        // The 99th percentile only looks at the last 1024 execution times: 1977 to 3000
+        var snapshot = statistics.snapshot();
+        assertEquals(3000, snapshot.updateCount());
+        assertEquals(2990e-9, snapshot.p99ExecutionTime(), 1e-15);
+        assertEquals(1000, snapshot.budgetOverruns());
+    }
+}
@@ -0,0 +1,93 @@
+package controller.util;
+
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class TestPIDCore {
+
+    /**
+     * The original LinkedList implementation of DifferentialDriver and DirectSpeedPIDController, which PIDCore should
+     * match
+     */
+    private static class ReferencePID {
+
+        private final LinkedList<double[]> errorList = new LinkedList<>();
+        private final int maxHistory, derivativeBackPropagator;
+        double errorI, errorD;
+
+        ReferencePID(int maxHistory, int derivativeBackPropagator) {
+            this.maxHistory = maxHistory;
+            this.derivativeBackPropagator = derivativeBackPropagator;
+        }
+
+        void update(double deltaTime, double error) {
+            if (errorList.size() > maxHistory) errorList.removeFirst();
+
+            double lastError = 0;
+            int lastErrorIndex = Math.max(errorList.size() - derivativeBackPropagator, 0);
+            if (!errorList.isEmpty()) lastError = errorList.get(lastErrorIndex)[1];
+
+            errorI = 0;
+            for (var sample : errorList) errorI += sample[1] * sample[0];
+            errorList.add(new double[] { deltaTime, error });
+
+            double timeDiff = 0;
+            for (int i = lastErrorIndex; i < errorList.size(); i++) timeDiff += errorList.get(i)[0];
+
+            if (timeDiff > 0) errorD = (error - lastError) / timeDiff;
+            else errorD = 0;
+        }
+    }
+
+    private void compare(int maxHistory, int derivativeWindow, int numUpdates, double clearChance) {
+        var random = new Random(12345);
+        var reference = new ReferencePID(maxHistory, derivativeWindow);
+        var core = new PIDCore(maxHistory, derivativeWindow);
+
+        for (int counter = 0; counter < numUpdates; counter++) {
+            double deltaTime = 0.0005 + 0.001 * random.nextDouble();
+            double error = 2 * random.nextDouble() - 1;
+            reference.update(deltaTime, error);
+            core.update(deltaTime, error);
+            assertEquals(reference.errorI, core.getIntegral(), 1e-9);
+            assertEquals(reference.errorD, core.getDerivative(), 1e-9);
+
+            if (random.nextDouble() < clearChance) {
+                reference.errorList.clear();
+                core.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesReference() {
+        compare(10000, 25, 3000, 0.0);
+        compare(100, 25, 3000, 0.0);
+        compare(100, 5, 3000, 0.01);
+        compare(3, 5, 100, 0.0);
+    }
+
+    @Test
+    public void testIntegralLimit() {
+        var core = new PIDCore(100, 5);
+        core.setIntegralLimit(0.5);
+        for (int counter = 0; counter < 100; counter++) core.update(0.1, 1.0);
+        assertEquals(0.5, core.getIntegral(), 1e-9);
+        for (int counter = 0; counter < 100; counter++) core.update(0.1, -1.0);
+        assertEquals(-0.5, core.getIntegral(), 1e-9);
+    }
+
+    @Test
+    public void testNoHiddenWindup() {
+        var core = new PIDCore(1000, 5);
+        core.setIntegralLimit(0.5);
+        for (int counter = 0; counter < 100; counter++) core.update(0.1, 1.0);
+        core.update(0.1, -1.0);
+        core.update(0.1, 0.0);
+        assertEquals(0.4, core.getIntegral(), 1e-9);
+    }
+}
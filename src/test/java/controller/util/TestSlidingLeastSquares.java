@@ -0,0 +1,67 @@
+package controller.util;
+
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class TestSlidingLeastSquares {
+
+    private record Sample(double getT, double getY) implements Polynomial.Entry {}
+
+    private void compare(int degree, double tolerance) {
+        var random = new Random(42);
+        var window = new LinkedList<Sample>();
+        var fitter = new SlidingLeastSquares(degree, 4);
+
+        double t = 100.0;
+        for (int counter = 0; counter < 2000; counter++) {
+            t += 0.0005 + 0.001 * random.nextDouble();
+            double y = 0.3 * t + 0.01 * Math.sin(10 * t) + 0.001 * random.nextGaussian();
+
+            double minT = t - 0.15;
+            window.removeIf(sample -> sample.getT < minT);
+            window.add(new Sample(t, y));
+            fitter.removeBefore(minT);
+            fitter.add(t, y);
+            assertEquals(window.size(), fitter.size());
+
+            var expected = Polynomial.fit(window, degree);
+            if (expected == null) {
+                // la4j uses an absolute tolerance to detect singular matrices, which rejects some (tiny) quadratic
+                // fits that are still well-defined
+                if (degree == 1) assertFalse(fitter.fit());
+                continue;
+            }
+            assertTrue(fitter.fit());
+            assertEquals(expected.getDerivative().get(t), fitter.getDerivative(t), tolerance);
+        }
+    }
+
+    @Test
+    public void testMatchesPolynomialFit() {
+        compare(1, 1e-6);
+        compare(2, 1e-4);
+    }
+
+    @Test
+    public void testSingularFit() {
+        var fitter = new SlidingLeastSquares(1, 10);
+        assertFalse(fitter.fit());
+        fitter.add(1.0, 5.0);
+        assertFalse(fitter.fit());
+        assertEquals(0.0, fitter.getDerivative(1.0));
+        fitter.add(1.0, 6.0);
+        assertFalse(fitter.fit());
+        fitter.add(2.0, 7.0);
+        assertTrue(fitter.fit());
+        assertEquals(1.5, fitter.getDerivative(1.0), 1e-9);
+        assertEquals(5.5, fitter.getValue(1.0), 1e-9);
+
+        fitter.removeBefore(1.5);
+        assertEquals(1, fitter.size());
+        assertFalse(fitter.fit());
+    }
+}
@@ -0,0 +1,102 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class TestBatchSimulator {
+
+    private static final List<BatchSimulator.Robot> ROBOTS = List.of(
+            new BatchSimulator.Robot(Terrain.IDEAL, 0.0, 0.0, 0.0, 1),
+            new BatchSimulator.Robot(Terrain.NOISY_SLOW, 0.0, 0.0, 0.05, 2),
+            new BatchSimulator.Robot(Terrain.SKEWED_FAST, 0.0, 0.0, 0.0, 3),
+            new BatchSimulator.Robot(Terrain.VERY_NOISY_FAST, 0.0, 0.0, 0.1, 4)
+    );
+
+    private void compareWithSimulators(Integrator integrator, double stepTime, int numSteps) {
+        var batch = new BatchSimulator(ROBOTS, stepTime);
+        batch.integrator = integrator;
+        var simulators = new ArrayList<Simulator>();
+        for (var robot : ROBOTS) {
+            var simulator = new Simulator(
+                    robot.terrain(), robot.controlLatency(), robot.controlLatency(), robot.tickLatency(),
+                    robot.tickLatency(), 100, robot.slipChance(), robot.slipChance(), 0.0, robot.seed()
+            );
+            simulator.integrator = integrator;
+            simulators.add(simulator);
+        }
+
+        for (int step = 0; step < numSteps; step++) {
+            for (int index = 0; index < ROBOTS.size(); index++) {
+                double leftControl = 0.5 + 0.6 * Math.sin(0.01 * step + index);
+                double rightControl = 0.5 + 0.6 * Math.cos(0.013 * step - index);
+                batch.leftControl[index] = leftControl;
+                batch.rightControl[index] = rightControl;
+                simulators.get(index).controls.velLeft = leftControl;
+                simulators.get(index).controls.velRight = rightControl;
+                simulators.get(index).update(stepTime);
+            }
+            batch.step();
+
+            for (int index = 0; index < ROBOTS.size(); index++) {
+                var simulator = simulators.get(index);
+                assertEquals(simulator.realPose.x, batch.x[index], 1e-12);
+                assertEquals(simulator.realPose.y, batch.y[index], 1e-12);
+                assertEquals(simulator.realPose.angle, batch.angle[index], 1e-12);
+                assertEquals(simulator.trackedState.leftWheelEncoder.value(), batch.leftTicks[index]);
+                assertEquals(simulator.trackedState.rightWheelEncoder.value(), batch.rightTicks[index]);
+            }
+        }
+        assertEquals(simulators.get(0).nanoTime(), batch.nanoTime());
+    }
+
+    @Test
+    public void testMatchesSimulator() {
+        compareWithSimulators(Integrator.EULER, 0.001, 2000);
+        compareWithSimulators(Integrator.EXACT_ARC, 0.005, 400);
+        compareWithSimulators(Integrator.RK4, 0.005, 400);
+    }
+
+    @Test
+    public void testLatency() {
+        var batch = new BatchSimulator(List.of(
+                new BatchSimulator.Robot(Terrain.IDEAL, 0.0, 0.0, 0.0, 1),
+                new BatchSimulator.Robot(Terrain.IDEAL, 0.003, 0.0, 0.0, 1),
+                new BatchSimulator.Robot(Terrain.IDEAL, 0.0, 0.01, 0.0, 1)
+        ), 0.001);
+        batch.integrator = Integrator.EXACT_ARC;
+        for (int index = 0; index < 3; index++) {
+            batch.leftControl[index] = 1.0;
+            batch.rightControl[index] = 1.0;
+        }
+
+        // The encoder values of robot 2 are those of robot 0, 10 steps earlier
+        var ticks = new ArrayList<Integer>();
+        double startX = batch.x[0];
+        for (int step = 1; step <= 50; step++) {
+            batch.step();
+            ticks.add(batch.leftTicks[0]);
+
+            assertEquals(startX + 0.001 * step, batch.x[0], 1e-12);
+            assertEquals(startX + 0.001 * Math.max(0, step - 3), batch.x[1], 1e-12);
+            assertEquals(batch.x[0], batch.x[2]);
+            assertEquals(step > 10 ? ticks.get(step - 11) : 0, batch.leftTicks[2]);
+            assertEquals(batch.leftTicks[2], batch.rightTicks[2]);
+        }
+        assertTrue(batch.leftTicks[2] > 0);
+    }
+
+    @Test
+    public void testSharedWalls() {
+        var walls = SimulatorMaze.createTestingWallGrid5x5();
+        var batch1 = new BatchSimulator(ROBOTS, 0.01, walls);
+        var batch2 = new BatchSimulator(ROBOTS.subList(0, 1), 0.01, walls);
+        var simulator = new Simulator(Terrain.IDEAL);
+        assertEquals(simulator.walls.copyWalls(), walls.copyWalls());
+        assertFalse(batch1.findVisibleWalls(0).isEmpty());
+        assertEquals(batch1.findVisibleWalls(3), batch2.findVisibleWalls(0));
+    }
+}
@@ -0,0 +1,111 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class TestLatencyLine {
+
+    /**
+     * A straightforward implementation with a fixed latency, which scans all values that have been inserted
+     */
+    private static class ReferenceLatency<T> {
+
+        private record Entry<T>(double timestamp, T value) {}
+
+        private final List<Entry<T>> entries = new ArrayList<>();
+        private final double latency;
+        private final T defaultValue;
+
+        ReferenceLatency(double latency, T defaultValue) {
+            this.latency = latency;
+            this.defaultValue = defaultValue;
+        }
+
+        void insert(double currentTime, T value) {
+            entries.add(new Entry<>(currentTime, value));
+        }
+
+        T get(double currentTime) {
+            T result = defaultValue;
+            for (var entry : entries) {
+                if (entry.timestamp + latency <= currentTime) result = entry.value;
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void testZeroLatency() {
+        var line = new IntLatencyLine(0.0, 1);
+        assertEquals(1, line.get(1));
+        line.insert(1.1, 5);
+        assertEquals(5, line.get(1.1));
+        assertEquals(5, line.get(1.11));
+
+        line.insert(1.2, -3);
+        assertEquals(-3, line.get(1.2));
+    }
+
+    @Test
+    public void testWithLatency() {
+        var line = new DoubleLatencyLine(0.5, 3.0);
+        assertEquals(3.0, line.get(1.0));
+        line.insert(1.1, 4.0);
+        assertEquals(3.0, line.get(1.1));
+        line.insert(1.3, 8.0);
+        assertEquals(3.0, line.get(1.4));
+        assertEquals(4.0, line.get(1.61));
+        assertEquals(4.0, line.get(1.71));
+        assertEquals(8.0, line.get(1.81));
+        assertEquals(8.0, line.get(2.81));
+    }
+
+    @Test
+    public void testMatchesReference() {
+        var random = new Random(8);
+        for (double latency : new double[] { 0.0, 0.001, 0.0234, 0.5 }) {
+            var expectedDoubles = new ReferenceLatency<>(latency, -1.0);
+            var expectedInts = new ReferenceLatency<>(latency, -1);
+            var doubleLine = new DoubleLatencyLine(latency, -1.0);
+            var intLine = new IntLatencyLine(latency, -1);
+
+            double time = 0.0;
+            for (int counter = 0; counter < 5000; counter++) {
+                time += 0.001 * random.nextInt(3);
+                if (random.nextInt(4) != 0) {
+                    double value = random.nextDouble();
+                    expectedDoubles.insert(time, value);
+                    doubleLine.insert(time, value);
+                    expectedInts.insert(time, counter);
+                    intLine.insert(time, counter);
+                }
+                assertEquals(expectedDoubles.get(time), doubleLine.get(time));
+                assertEquals((int) expectedInts.get(time), intLine.get(time));
+            }
+        }
+    }
+
+    @Test
+    public void testJitterKeepsOrder() {
+        var random = new Random(3);
+        var line = new IntLatencyLine(() -> 0.02 + 0.03 * random.nextDouble(), 0);
+
+        int lastValue = 0;
+        for (int counter = 1; counter <= 2000; counter++) {
+            double time = counter * 0.001;
+            line.insert(time, counter);
+
+            // The values must arrive in order, and their latency must stay within the jitter bounds
+            int value = line.get(time);
+            assertEquals(true, value >= lastValue);
+            if (counter > 50) assertEquals(true, value >= counter - 50);
+            if (value > 0) assertEquals(true, value <= counter - 20);
+            lastValue = value;
+        }
+    }
+}
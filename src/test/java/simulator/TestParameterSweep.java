@@ -0,0 +1,62 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class TestParameterSweep {
+
+    private static ParameterSweep.Configuration defaultConfiguration(String terrain, double slipChance, long seed) {
+        return new ParameterSweep.Configuration(
+                terrain, 20.0, 0.0, 2.5, 1.5, 0.0001, 0.5, 0.02, 0.02, slipChance, seed
+        );
+    }
+
+    @Test
+    public void testDefaultGainsFinishMission() {
+        var result = ParameterSweep.run(defaultConfiguration("IDEAL", 0.0, 1), 60.0);
+        assertTrue(result.isFinished());
+        assertTrue(result.missionTime() > 5.0 && result.missionTime() < 30.0);
+        assertTrue(result.angleError() < 0.05);
+        assertTrue(result.settlingTime() < 2.0);
+        assertTrue(result.finalError() < 0.1);
+    }
+
+    @Test
+    public void testTimeout() {
+        var result = ParameterSweep.run(defaultConfiguration("IDEAL", 0.0, 1), 2.0);
+        assertFalse(result.isFinished());
+        assertTrue(Double.isNaN(result.missionTime()));
+    }
+
+    @Test
+    public void testRunAllIsDeterministicAndOrdered() {
+        var configurations = List.of(
+                defaultConfiguration("NOISY_SLOW", 0.01, 5),
+                defaultConfiguration("SKEWED_FAST", 0.0, 6),
+                defaultConfiguration("NOISY_SLOW", 0.01, 5)
+        );
+        var results = ParameterSweep.runAll(configurations, 30.0);
+        assertEquals(3, results.size());
+        for (int index = 0; index < 3; index++) assertSame(configurations.get(index), results.get(index).configuration());
+        assertEquals(results.get(0), results.get(2));
+        assertFalse(results.get(0).equals(results.get(1)));
+    }
+
+    @Test
+    public void testGrid() {
+        var configurations = ParameterSweep.grid(
+                List.of("IDEAL", "SKEWED_SLOW"), new double[] { 10.0, 20.0 }, new double[] { 2.5 },
+                new double[] { 1.0, 1.5, 2.0 }, new double[] { 0.0 }, new double[] { 0.0, 0.01 }, 100
+        );
+        assertEquals(2 * 2 * 3 * 2, configurations.size());
+        assertEquals("IDEAL", configurations.get(0).terrain());
+        assertEquals("SKEWED_SLOW", configurations.get(23).terrain());
+        assertEquals(123, configurations.get(23).seed());
+        for (var configuration : ParameterSweep.randomSample(20, 1)) {
+            assertTrue(Terrain.PRESETS.containsKey(configuration.terrain()));
+        }
+    }
+}
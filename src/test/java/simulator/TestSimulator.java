@@ -2,8 +2,12 @@ package simulator;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+
 import static controller.util.DuckieBot.*;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 
 public class TestSimulator {
 
@@ -86,4 +90,114 @@ public class TestSimulator {
         assertEquals(0.0, simulator.realPose.velocityX, 0.01);
         assertEquals(0.0, simulator.realPose.velocityY, 0.01);
     }
+
+    @Test
+    public void testSensorsUseSimulationTime() {
+        var simulator = new Simulator(Terrain.IDEAL, 0.0, 0.0, 0.0, 0.0, 100, 0.0, 0.0, 0.0, 1L);
+        simulator.realPose.x = 0.5 * GRID_SIZE;
+        simulator.realPose.y = 0.5 * GRID_SIZE;
+
+        var frameTimestamps = new HashSet<Long>();
+        for (int counter = 1; counter <= 1000; counter++) {
+            simulator.update(0.001);
+            assertEquals(counter * 1_000_000L, simulator.nanoTime());
+            assertEquals(simulator.nanoTime(), simulator.trackedState.leftWheelEncoder.timestamp());
+            assertEquals(simulator.nanoTime(), simulator.trackedState.rightWheelEncoder.timestamp());
+            frameTimestamps.add(simulator.trackedState.cameraWalls.timestamp());
+        }
+
+        // 1 frame every 100 milliseconds of simulation time, no matter how fast the simulation runs
+        assertEquals(10, frameTimestamps.size());
+        for (long timestamp = 1_000_000; timestamp < 1_000_000_000; timestamp += 100_000_000) {
+            assertTrue(frameTimestamps.contains(timestamp));
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesSameSlip() {
+        var simulator1 = new Simulator(Terrain.IDEAL, 0.0, 0.0, 0.0, 0.0, 100, 0.3, 0.5, 0.0, 42L);
+        var simulator2 = new Simulator(Terrain.IDEAL, 0.0, 0.0, 0.0, 0.0, 100, 0.3, 0.5, 0.0, 42L);
+        for (var simulator : new Simulator[] { simulator1, simulator2 }) {
+            simulator.controls.velLeft = 1.0;
+            simulator.controls.velRight = 0.8;
+            for (int counter = 0; counter < 500; counter++) simulator.update(0.001);
+        }
+
+        assertEquals(simulator1.trackedState.leftWheelEncoder.value(), simulator2.trackedState.leftWheelEncoder.value());
+        assertEquals(simulator1.trackedState.rightWheelEncoder.value(), simulator2.trackedState.rightWheelEncoder.value());
+    }
+
+    @Test
+    public void testSameSeedGivesSameNoise() {
+        var simulators = new Simulator[3];
+        for (int index = 0; index < 3; index++) {
+            simulators[index] = new Simulator(
+                    Terrain.VERY_NOISY_SLOW, 0.0, 0.0, 0.0, 0.0, 100, 0.1, 0.1, 0.2, index == 2 ? 43L : 42L
+            );
+            simulators[index].controls.velLeft = 1.0;
+            simulators[index].controls.velRight = 0.8;
+            for (int counter = 0; counter < 500; counter++) simulators[index].update(0.001);
+        }
+
+        assertEquals(simulators[0].realPose.x, simulators[1].realPose.x);
+        assertEquals(simulators[0].realPose.y, simulators[1].realPose.y);
+        assertEquals(simulators[0].trackedState.cameraWalls.walls(), simulators[1].trackedState.cameraWalls.walls());
+        assertTrue(simulators[0].realPose.x != simulators[2].realPose.x);
+        assertFalse(simulators[0].trackedState.cameraWalls.walls().equals(simulators[2].trackedState.cameraWalls.walls()));
+    }
+
+    /**
+     * Drives a circle with constant wheel speeds for 1 second, and returns the distance to the exact final position
+     */
+    private double circleError(Integrator integrator, double deltaTime, int numSubSteps) {
+        var simulator = new Simulator(Terrain.IDEAL);
+        simulator.integrator = integrator;
+        simulator.numSubSteps = numSubSteps;
+        simulator.realPose.x = 0.0;
+        simulator.realPose.y = 0.0;
+        simulator.controls.velLeft = 0.3;
+        simulator.controls.velRight = 0.5;
+        int numSteps = (int) Math.round(1.0 / deltaTime);
+        for (int counter = 0; counter < numSteps; counter++) simulator.update(deltaTime);
+
+        double speed = 0.4;
+        double angularVelocity = 0.2 / DISTANCE_BETWEEN_WHEELS;
+        double exactX = speed / angularVelocity * Math.sin(angularVelocity);
+        double exactY = speed / angularVelocity * (1 - Math.cos(angularVelocity));
+        double exactAngle = angularVelocity / (2 * Math.PI);
+        assertEquals(exactAngle, simulator.realPose.angle, 1e-9);
+        return Math.hypot(simulator.realPose.x - exactX, simulator.realPose.y - exactY);
+    }
+
+    @Test
+    public void testIntegrators() {
+        double eulerError = circleError(Integrator.EULER, 0.001, 1);
+        assertTrue(eulerError < 0.001);
+
+        // Large steps are inaccurate with Euler integration, unless sub-steps are used
+        assertTrue(circleError(Integrator.EULER, 0.02, 1) > 10 * eulerError);
+        assertTrue(circleError(Integrator.EULER, 0.02, 20) < 2 * eulerError);
+
+        assertEquals(0.0, circleError(Integrator.EXACT_ARC, 0.02, 1), 1e-12);
+        assertEquals(0.0, circleError(Integrator.EXACT_ARC, 0.25, 1), 1e-12);
+        assertEquals(0.0, circleError(Integrator.RK4, 0.02, 1), 1e-8);
+        assertTrue(circleError(Integrator.RK4, 0.02, 1) < 0.01 * eulerError);
+    }
+
+    @Test
+    public void testSubStepsKeepEncoders() {
+        var simulator1 = new Simulator(Terrain.IDEAL, 0.0, 0.0, 0.0, 0.0, 100, 0.0, 0.0, 0.0, 1L);
+        var simulator2 = new Simulator(Terrain.IDEAL, 0.0, 0.0, 0.0, 0.0, 100, 0.0, 0.0, 0.0, 1L);
+        simulator2.integrator = Integrator.EXACT_ARC;
+        simulator2.numSubSteps = 4;
+        simulator1.controls.velLeft = simulator2.controls.velLeft = 0.4;
+        simulator1.controls.velRight = simulator2.controls.velRight = 0.6;
+        for (int counter = 0; counter < 500; counter++) simulator1.update(0.001);
+        for (int counter = 0; counter < 25; counter++) simulator2.update(0.02);
+
+        assertEquals(simulator1.nanoTime(), simulator2.nanoTime());
+        assertEquals(simulator1.trackedState.leftWheelEncoder.value(), simulator2.trackedState.leftWheelEncoder.value(), 1);
+        assertEquals(simulator1.trackedState.rightWheelEncoder.value(), simulator2.trackedState.rightWheelEncoder.value(), 1);
+        assertEquals(simulator1.realPose.angle, simulator2.realPose.angle, 1e-9);
+    }
 }
@@ -0,0 +1,91 @@
+package simulator;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class TestSpeedTable {
+
+    @Test
+    public void testInterpolation() {
+        var table = new SpeedTable(-1.0, 1.0, new double[] { -2.0, 0.0, 1.0 });
+        assertEquals(-2.0, table.applyAsDouble(-1.0), 1e-12);
+        assertEquals(-1.0, table.applyAsDouble(-0.5), 1e-12);
+        assertEquals(0.0, table.applyAsDouble(0.0), 1e-12);
+        assertEquals(0.25, table.applyAsDouble(0.25), 1e-12);
+        assertEquals(1.0, table.applyAsDouble(1.0), 1e-12);
+
+        // Outside the knots, the nearest knot is used
+        assertEquals(-2.0, table.applyAsDouble(-3.0), 1e-12);
+        assertEquals(1.0, table.applyAsDouble(1.5), 1e-12);
+        assertEquals(-2.0, table.applyAsDouble(Double.NaN), 1e-12);
+    }
+
+    @Test
+    public void testFitNoisySamples() {
+        var random = new Random(12);
+        int numSamples = 5000;
+        double[] signals = new double[numSamples];
+        double[] speeds = new double[numSamples];
+        for (int index = 0; index < numSamples; index++) {
+            // No samples between -0.5 and 0.2, so those knots must be interpolated
+            do signals[index] = 2.0 * random.nextDouble() - 1.0; while (signals[index] > -0.5 && signals[index] < 0.2);
+            speeds[index] = Math.max(0.0, 1.5 * signals[index] - 0.1) + 0.05 * random.nextGaussian();
+        }
+
+        var table = SpeedTable.fit(signals, speeds, -1.0, 1.0, 21);
+        for (double signal = 0.2; signal <= 1.0; signal += 0.05) {
+            assertEquals(1.5 * signal - 0.1, table.applyAsDouble(signal), 0.02);
+        }
+        assertEquals(0.0, table.applyAsDouble(-0.8), 0.02);
+        assertTrue(table.applyAsDouble(0.0) > -0.02 && table.applyAsDouble(0.0) < 0.22);
+    }
+
+    @Test
+    public void testFitExactSamples() {
+        double[] signals = { 1.0, -1.0, 0.0, 0.5, -0.5, 0.5 };
+        double[] speeds = { 3.0, -1.0, 1.0, 2.0, 0.0, 2.0 };
+        var table = SpeedTable.fit(signals, speeds, -1.0, 1.0, 5);
+        for (double signal = -1.0; signal <= 1.0; signal += 0.1) {
+            assertEquals(2.0 * signal + 1.0, table.applyAsDouble(signal), 1e-4);
+        }
+    }
+
+    @Test
+    public void testTerrainFromRecording() throws IOException {
+        var recording = Files.createTempFile("terrain", ".txt");
+        try {
+            var content = new StringBuilder("# motor signal, left speed, right speed\n\n");
+            for (int index = -10; index <= 10; index++) {
+                double signal = index * 0.1;
+                content.append(signal).append(' ').append(0.8 * signal).append("\t").append(0.6 * signal).append('\n');
+            }
+            Files.writeString(recording, content);
+
+            var terrain = Terrain.fromRecording(recording, 11);
+            assertEquals(0.4, terrain.leftSpeedFunction.apply(0.5, null), 1e-4);
+            assertEquals(-0.3, terrain.rightSpeedFunction.apply(-0.5, null), 1e-4);
+
+            var simulator = new Simulator(terrain);
+            simulator.controls.velLeft = 0.5;
+            simulator.controls.velRight = 0.5;
+            for (int counter = 0; counter < 100; counter++) simulator.update(0.001);
+            // The left wheel is faster, so the duckiebot turns clockwise
+            assertTrue(simulator.realPose.angle > 0.9 && simulator.realPose.angle < 1.0);
+
+            Files.writeString(recording, "0.5 0.4\n");
+            try {
+                Terrain.fromRecording(recording, 11);
+                fail();
+            } catch (IOException expected) {
+                // 1 number is missing
+            }
+        } finally {
+            Files.delete(recording);
+        }
+    }
+}
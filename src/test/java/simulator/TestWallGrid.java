@@ -4,10 +4,16 @@ import camera.WallSnapper;
 import org.junit.Test;
 import planner.GridWall;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static controller.util.DuckieBot.GRID_SIZE;
-import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.*;
 import static simulator.WallGrid.getWallView;
 
 public class TestWallGrid {
@@ -140,4 +146,142 @@ public class TestWallGrid {
 
         assertEquals(expectedWalls, actualWalls);
     }
+
+    /**
+     * The original implementation of findVisibleWalls, which compares each wall with every other wall
+     */
+    private static Set<GridWall> findVisibleWallsBruteForce(Set<GridWall> allWalls, WallSnapper.FixedPose camera) {
+        var visibleWalls = new HashSet<GridWall>();
+
+        double fov = 0.125;
+        for (var candidateWall : allWalls) {
+            var candidateView = getWallView(candidateWall, camera);
+            Collection<Double> candidateAngles = new LinkedList<>();
+            for (double candidateAngle = candidateView.minAngle(); candidateAngle <= candidateView.maxAngle(); candidateAngle += 0.001) {
+                candidateAngles.add(candidateAngle);
+            }
+            int originalSize = candidateAngles.size();
+
+            if (candidateView.maxAngle() > -fov && candidateView.minAngle() < fov) {
+                for (var otherWall : allWalls) {
+                    var otherView = getWallView(otherWall, camera);
+                    if (otherView.distance() < candidateView.distance()) {
+                        candidateAngles.removeIf(
+                                candidateAngle -> candidateAngle > otherView.minAngle() && candidateAngle < otherView.maxAngle()
+                        );
+                    }
+                }
+
+                double coveredAngle = (candidateView.maxAngle() - candidateView.minAngle()) * candidateAngles.size() / originalSize;
+                if (coveredAngle > 0.02) visibleWalls.add(candidateWall);
+            }
+        }
+
+        return visibleWalls;
+    }
+
+    @Test
+    public void testGetVisibleWallsMatchesBruteForce() {
+        var random = new Random(42);
+        for (int mazeCounter = 0; mazeCounter < 20; mazeCounter++) {
+            var grid = new WallGrid();
+            for (int wallCounter = 0; wallCounter < 60; wallCounter++) {
+                grid.add(new GridWall(
+                        random.nextInt(10) - 5, random.nextInt(10) - 5,
+                        random.nextBoolean() ? GridWall.Axis.X : GridWall.Axis.Y
+                ));
+            }
+
+            for (int cameraCounter = 0; cameraCounter < 20; cameraCounter++) {
+                var camera = new WallSnapper.FixedPose(
+                        (10 * random.nextDouble() - 5) * GRID_SIZE, (10 * random.nextDouble() - 5) * GRID_SIZE,
+                        random.nextDouble()
+                );
+                assertEquals(findVisibleWallsBruteForce(grid.copyWalls(), camera), grid.findVisibleWalls(camera));
+            }
+        }
+
+        // Cameras at grid corners have walls at exactly the same distance
+        var grid = SimulatorMaze.createTestingWallGrid8x8();
+        for (int x = -3; x <= 3; x++) {
+            for (int angleCounter = 0; angleCounter < 8; angleCounter++) {
+                var camera = new WallSnapper.FixedPose(x * GRID_SIZE, 0.0, angleCounter / 8.0);
+                assertEquals(findVisibleWallsBruteForce(grid.copyWalls(), camera), grid.findVisibleWalls(camera));
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshots() {
+        var random = new Random(12);
+        var grid = new WallGrid();
+        var expectedWalls = new HashSet<GridWall>();
+        var oldSnapshot = grid.snapshot();
+        for (int counter = 0; counter < 500; counter++) {
+            var wall = new GridWall(
+                    random.nextInt(60) - 30, random.nextInt(60) - 30,
+                    random.nextBoolean() ? GridWall.Axis.X : GridWall.Axis.Y
+            );
+            if (counter % 2 == 0) grid.add(wall);
+            else grid.addAll(List.of(wall, wall));
+            expectedWalls.add(wall);
+
+            var snapshot = grid.snapshot();
+            assertEquals(expectedWalls.size(), snapshot.size());
+            assertTrue(snapshot.contains(wall));
+            assertFalse(snapshot.contains(wall.gridX(), wall.gridY(), GridWall.Axis.DUCKIE));
+            if (counter % 50 == 0) assertEquals(expectedWalls, snapshot.toSet());
+
+            // Old snapshots must not change, and adding an existing wall shouldn't create a new snapshot
+            if (oldSnapshot.contains(wall)) assertSame(oldSnapshot, snapshot);
+            else assertEquals(snapshot.size() - 1, oldSnapshot.size());
+            oldSnapshot = snapshot;
+        }
+
+        var iteratedWalls = new ArrayList<GridWall>();
+        for (var wall : grid.snapshot()) iteratedWalls.add(wall);
+        var forEachWalls = new ArrayList<GridWall>();
+        grid.snapshot().forEach(forEachWalls::add);
+        assertEquals(iteratedWalls, forEachWalls);
+        assertEquals(expectedWalls, new HashSet<>(iteratedWalls));
+        assertEquals(expectedWalls, grid.copyWalls());
+    }
+
+    @Test
+    public void testChangeFeed() {
+        var random = new Random(5);
+        var grid = new WallGrid();
+        var receivedWalls = new HashSet<GridWall>();
+        long version = 0;
+        for (int batch = 0; batch < 200; batch++) {
+            var addedWalls = new ArrayList<GridWall>();
+            var removedWalls = new ArrayList<GridWall>();
+            int batchSize = random.nextInt(5);
+            for (int counter = 0; counter < batchSize; counter++) {
+                var wall = new GridWall(
+                        random.nextInt(20) - 10, random.nextInt(20) - 10,
+                        random.nextBoolean() ? GridWall.Axis.X : GridWall.Axis.Y
+                );
+                if (random.nextInt(3) == 0) removedWalls.add(wall);
+                else addedWalls.add(wall);
+            }
+            grid.update(addedWalls, removedWalls);
+
+            var snapshot = grid.snapshot();
+            assertTrue(snapshot.version() >= version);
+            snapshot.forEachChangeSince(version, wall -> assertTrue(receivedWalls.add(wall)), wall -> {
+                assertTrue(receivedWalls.remove(wall));
+            });
+            version = snapshot.version();
+
+            assertEquals(snapshot.size(), receivedWalls.size());
+            assertEquals(snapshot.toSet(), receivedWalls);
+            for (var wall : removedWalls) assertFalse(snapshot.contains(wall));
+        }
+
+        // Consumers that start later should end up with the same walls
+        var lateWalls = new HashSet<GridWall>();
+        grid.snapshot().forEachChangeSince(0, lateWalls::add, lateWalls::remove);
+        assertEquals(receivedWalls, lateWalls);
+    }
 }
@@ -0,0 +1,50 @@
+package state;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class TestEncoderSlot {
+
+    @Test
+    public void testReadWrite() {
+        var slot = new EncoderSlot();
+        var sample = new EncoderSlot.Sample();
+        assertTrue(slot.isEmpty());
+        assertEquals(0, slot.read(sample));
+        assertNull(slot.get());
+
+        slot.write(1234, 56);
+        assertFalse(slot.isEmpty());
+        long firstSequence = slot.read(sample);
+        assertTrue(firstSequence > 0);
+        assertEquals(1234, sample.timestamp);
+        assertEquals(56, sample.ticks);
+        assertEquals(new DuckieState.WheelEncoderEntry(1234, 56), slot.get());
+
+        slot.write(new DuckieState.WheelEncoderEntry(2345, 78));
+        assertTrue(slot.read(sample) > firstSequence);
+        assertEquals(2345, sample.timestamp);
+        assertEquals(78, sample.ticks);
+        assertEquals(78, slot.value());
+    }
+
+    @Test
+    public void testReadersNeverSeeTornValues() throws InterruptedException {
+        var slot = new EncoderSlot();
+        var writer = new Thread(() -> {
+            for (int counter = 1; counter <= 1_000_000; counter++) slot.write(counter, counter);
+        });
+        writer.start();
+
+        var sample = new EncoderSlot.Sample();
+        long lastSequence = 0;
+        while (writer.isAlive()) {
+            long sequence = slot.read(sample);
+            assertEquals(sample.timestamp, sample.ticks);
+            assertTrue(sequence >= lastSequence);
+            lastSequence = sequence;
+        }
+        writer.join();
+    }
+}